@@ -0,0 +1,80 @@
+/**
+ * =============================================================
+ *  File: BenchmarkData.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Shared fixtures for the JMH benchmarks: representative
+ *               clients, contracts and an ObjectMapper configured
+ *               like the application's one.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.benchmark;
+
+import ch.vaudoise.exercice.api_factory.config.JacksonConfig;
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.entity.Contract;
+import ch.vaudoise.exercice.api_factory.entity.Person;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Builds an ObjectMapper with the same setup as the application (JacksonConfig).
+     *
+     * @return the configured ObjectMapper
+     */
+    static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        new JacksonConfig(objectMapper).setUp();
+        return objectMapper;
+    }
+
+    static Person person(ObjectMapper objectMapper) {
+        return read(objectMapper, """
+            {"id":1,"name":"Jane Doe","email":"jane.doe@example.ch","phone":"+41791234567","birthDate":"1990-05-17"}
+            """, Person.class);
+    }
+
+    static Company company(ObjectMapper objectMapper) {
+        return read(objectMapper, """
+            {"id":2,"name":"Acme SA","email":"contact@acme.ch","phone":"+41211234567","companyIdentifier":"acm-123"}
+            """, Company.class);
+    }
+
+    static Contract contract(Person client) {
+        Contract contract = new Contract();
+        contract.setId(42L);
+        contract.setClient(client);
+        contract.setCostAmount(1250.5);
+        contract.setStartDate(LocalDate.of(2024, 1, 1));
+        contract.setEndDate(LocalDate.of(2030, 12, 31));
+        return contract;
+    }
+
+    static List<ContractView> contractViews(int size) {
+        List<ContractView> views = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            views.add(new ContractView((long) i, 100.0 + i, LocalDate.of(2024, 1, 1).plusDays(i),
+                    i % 3 == 0 ? null : LocalDate.of(2030, 1, 1), 1L, "Jane Doe"));
+        }
+        return views;
+    }
+
+    private static <T> T read(ObjectMapper objectMapper, String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * =============================================================
+ *  File: ContactFieldsBenchmark.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Compares the ContactFields scanners with the regular
+ *               expressions they replace (email/phone validation and
+ *               phone normalization).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.benchmark;
+
+import ch.vaudoise.exercice.api_factory.validation.ContactFields;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactFieldsBenchmark {
+
+    /** Former @Pattern constraints, precompiled (best case for the regex baseline). */
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern PHONE = Pattern.compile("^[+]?([0-9][\\s-]?){7,15}$");
+
+    private final String email = "jane.doe@example.ch";
+
+    /** Phone number input, formatted or already canonical. */
+    @State(Scope.Benchmark)
+    public static class Phone {
+
+        @Param({"+41 79 123-45-67", "+41791234567"})
+        private String value;
+    }
+
+    @Benchmark
+    public boolean emailRegex() {
+        return EMAIL.matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean emailScanner() {
+        return ContactFields.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean phoneRegex(Phone phone) {
+        return PHONE.matcher(phone.value).matches();
+    }
+
+    @Benchmark
+    public boolean phoneScanner(Phone phone) {
+        return ContactFields.isValidPhone(phone.value);
+    }
+
+    @Benchmark
+    public String normalizeRegex(Phone phone) {
+        return phone.value.replaceAll("[\\s-]", "");
+    }
+
+    @Benchmark
+    public String normalizeScanner(Phone phone) {
+        return ContactFields.normalizePhone(phone.value);
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * =============================================================
+ *  File: ContractViewBenchmark.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Measures the mapping of a Contract entity to its
+ *               read-only ContractView.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.benchmark;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.entity.Contract;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractViewBenchmark {
+
+    private Contract contract;
+
+    @Setup
+    public void setUp() {
+        contract = BenchmarkData.contract(BenchmarkData.person(BenchmarkData.objectMapper()));
+    }
+
+    @Benchmark
+    public ContractView from() {
+        return ContractView.from(contract);
+    }
+}
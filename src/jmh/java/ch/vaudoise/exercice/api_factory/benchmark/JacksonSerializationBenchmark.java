@@ -0,0 +1,72 @@
+/**
+ * =============================================================
+ *  File: JacksonSerializationBenchmark.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Measures JSON serialization of the API payloads
+ *               (clients and contract lists) with the application's
+ *               ObjectMapper configuration.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.benchmark;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.entity.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Person person;
+    private Company company;
+
+    /** List of contract views, as returned by the contract list endpoints. */
+    @State(Scope.Benchmark)
+    public static class ContractList {
+
+        /** Number of contracts in the serialized list. */
+        @Param({"10", "1000"})
+        private int size;
+
+        private List<ContractView> views;
+
+        @Setup
+        public void setUp() {
+            views = BenchmarkData.contractViews(size);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkData.objectMapper();
+        person = BenchmarkData.person(objectMapper);
+        company = BenchmarkData.company(objectMapper);
+    }
+
+    @Benchmark
+    public byte[] person() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public byte[] company() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(company);
+    }
+
+    @Benchmark
+    public byte[] contractViews(ContractList contracts) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(contracts.views);
+    }
+}
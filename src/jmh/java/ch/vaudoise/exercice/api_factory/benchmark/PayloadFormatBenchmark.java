@@ -0,0 +1,113 @@
+/**
+ * =============================================================
+ *  File: PayloadFormatBenchmark.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Compares the CPU cost and size of a contract list payload
+ *               in the negotiable response formats (JSON, gzipped JSON,
+ *               Smile, CBOR), with and without Blackbird accessors.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.benchmark;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    /** Response format: json, json-gzip, smile or cbor. */
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    private String format;
+
+    /** Whether the mapper uses Blackbird generated accessors (as the application does). */
+    @Param({"true", "false"})
+    private boolean blackbird;
+
+    /** Number of contracts in the payload. */
+    @Param({"1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<ContractView> views;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = blackbird ? BenchmarkData.objectMapper() : new ObjectMapper().registerModule(new JavaTimeModule());
+        objectMapper = switch (format) {
+            case "smile" -> json.copyWith(new SmileFactory());
+            case "cbor" -> json.copyWith(new CBORFactory());
+            default -> json;
+        };
+        views = BenchmarkData.contractViews(size);
+        encoded = encode();
+    }
+
+    /**
+     * Serializes the payload and reports its size as the "payloadBytes" secondary result.
+     */
+    @Benchmark
+    public byte[] serialize(PayloadSize payload) throws IOException {
+        byte[] bytes = encode();
+        payload.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public ContractView[] deserialize() throws IOException {
+        byte[] bytes = encoded;
+        if ("json-gzip".equals(format)) {
+            try (var gzip = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+                bytes = gzip.readAllBytes();
+            }
+        }
+        return objectMapper.readValue(bytes, ContractView[].class);
+    }
+
+    private byte[] encode() throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(views);
+        if (!"json-gzip".equals(format)) {
+            return bytes;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Secondary result of serialize(): the payload size in bytes.
+     * The field holds the size of the last payload rather than a running sum, so the
+     * EVENTS counter reported at the end of each iteration is the size itself
+     * (with the default single benchmark thread).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+    }
+}
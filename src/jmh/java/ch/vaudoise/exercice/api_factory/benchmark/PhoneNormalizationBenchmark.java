@@ -0,0 +1,36 @@
+/**
+ * =============================================================
+ *  File: PhoneNormalizationBenchmark.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Measures Client.normalizePhone on formatted input
+ *               and on input that is already in canonical form.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.benchmark;
+
+import ch.vaudoise.exercice.api_factory.entity.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhoneNormalizationBenchmark {
+
+    @Param({"+41 79 123-45-67", "+41791234567"})
+    private String phone;
+
+    private final Person client = new Person();
+
+    @Benchmark
+    public String normalizePhone() {
+        client.setPhone(phone);
+        client.normalizePhone();
+        return client.getPhone();
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * =============================================================
+ *  File: ValidationBenchmark.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Measures Bean Validation of the request DTOs
+ *               (ContractDTO and UpdateClientRequest).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.benchmark;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractDTO;
+import ch.vaudoise.exercice.api_factory.dto.UpdateClientRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ContractDTO contract;
+    private UpdateClientRequest updateClient;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        contract = new ContractDTO();
+        contract.setClientId(1L);
+        contract.setCostAmount(1250.5);
+        contract.setStartDate(LocalDate.of(2024, 1, 1));
+
+        updateClient = new UpdateClientRequest();
+        updateClient.setName("Jane Doe");
+        updateClient.setEmail("jane.doe@example.ch");
+        updateClient.setPhone("+41 79 123 45 67");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ContractDTO>> contractDto() {
+        return validator.validate(contract);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UpdateClientRequest>> updateClientRequest() {
+        return validator.validate(updateClient);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * =============================================================
+ *  File: CacheConfig.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Configuration class enabling Spring's cache abstraction
+ *               backed by Caffeine. Defines the bounded client cache
+ *               used to avoid repeated Client/Person/Company joins.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Cache of clients by ID. */
+    public static final String CLIENTS_CACHE = "clients";
+
+    /**
+     * Defines the Caffeine cache manager.
+     * - Caches are declared up-front so that their hit/miss metrics are registered at startup.
+     * - The manager is transaction-aware: evictions performed inside a transaction
+     *   are applied after commit, so a concurrent reader cannot re-cache stale data.
+     *
+     * @param clientsSpec Caffeine specification (size, TTL, statistics) of the client cache
+     * @return configured CacheManager instance
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.clients.spec}") String clientsSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(clientsSpec);
+        cacheManager.setCacheNames(List.of(CLIENTS_CACHE));
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * =============================================================
+ *  File: IdempotencyConfig.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Configuration class selecting where the responses of
+ *               Idempotency-Key requests are recorded: in memory (default,
+ *               single node) or in the database (shared by all nodes).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.config;
+
+import ch.vaudoise.exercice.api_factory.idempotency.DatabaseIdempotencyStore;
+import ch.vaudoise.exercice.api_factory.idempotency.IdempotencyStore;
+import ch.vaudoise.exercice.api_factory.idempotency.InMemoryIdempotencyStore;
+import ch.vaudoise.exercice.api_factory.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Bounded in-memory store (Caffeine), local to the node.
+     *
+     * @param ttl        how long a key is remembered
+     * @param maxEntries maximum number of remembered keys
+     * @return the in-memory store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(@Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                                     @Value("${app.idempotency.max-entries:100000}") long maxEntries) {
+        return new InMemoryIdempotencyStore(ttl, maxEntries);
+    }
+
+    /**
+     * Store persisted in the idempotency_record table, for deployments with several nodes.
+     *
+     * @param repository the record repository
+     * @param ttl        how long a key is remembered
+     * @param lease      how long a key stays claimed while its request is processed
+     * @return the database store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "database")
+    public IdempotencyStore databaseIdempotencyStore(IdempotencyRecordRepository repository,
+                                                     @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                                     @Value("${app.idempotency.lease:1m}") Duration lease) {
+        return new DatabaseIdempotencyStore(repository, ttl, lease);
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * =============================================================
+ *  File: MetricsConfig.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Configuration class enabling Micrometer's @Timed
+ *               annotation, used to measure the service layer latency.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Registers the aspect that records a timer for every @Timed method.
+     *
+     * @param meterRegistry the application meter registry
+     * @return configured TimedAspect instance
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
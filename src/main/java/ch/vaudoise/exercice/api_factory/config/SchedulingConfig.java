@@ -0,0 +1,21 @@
+/**
+ * =============================================================
+ *  File: SchedulingConfig.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Configuration class enabling scheduled jobs
+ *               (archival of expired contracts). Disabled with
+ *               app.scheduling.enabled=false, e.g. on all but one node.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,42 @@
+/**
+ * =============================================================
+ *  File: SqlLogConfig.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Configuration class installing the slow-query log:
+ *               wraps the JDBC DataSource with SqlStatementLogger and
+ *               tags the Spring Data repositories so that each logged
+ *               statement names the repository method that issued it.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.config;
+
+import ch.vaudoise.exercice.api_factory.sqllog.SqlLogBeanPostProcessor;
+import ch.vaudoise.exercice.api_factory.sqllog.SqlStatementLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLogConfig {
+
+    /**
+     * Declared static: bean post-processors must not depend on the configuration instance.
+     *
+     * @param slowThreshold statements at least this slow to execute are always logged
+     * @param sampleRate    probability of logging any other statement
+     * @param logParams     whether bind values are logged (truncated)
+     * @return the post-processor wrapping the DataSource and the repositories
+     */
+    @Bean
+    public static SqlLogBeanPostProcessor sqlLogBeanPostProcessor(
+            @Value("${app.sql-log.slow-threshold:200ms}") Duration slowThreshold,
+            @Value("${app.sql-log.sample-rate:0}") double sampleRate,
+            @Value("${app.sql-log.log-params:false}") boolean logParams) {
+        return new SqlLogBeanPostProcessor(new SqlStatementLogger(slowThreshold, sampleRate, logParams));
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * =============================================================
+ *  File: ChangeController.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: REST Controller exposing the incremental change feed
+ *               of contracts and clients for downstream synchronisation.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.controller;
+
+import ch.vaudoise.exercice.api_factory.dto.ChangePage;
+import ch.vaudoise.exercice.api_factory.service.ChangeFeedService;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+
+    private final ChangeFeedService changeFeedService;
+
+    public ChangeController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    /**
+     * Retrieves the contracts and clients modified since the given cursor, oldest first.
+     * Start without a cursor, then always pass the returned "nextCursor" on the next call;
+     * when "hasMore" is false the consumer is up to date and can poll again later with the same cursor.
+     * Soft-deleted clients appear as tombstones ("deleted": true, no data).
+     * Changes are only served once they are older than app.changes.commit-lag.
+     * Archived contracts are not reported (no tombstone): they disappear from the Contract
+     * table and are read through /contracts/client/{id}/all?includeArchived=true.
+     *
+     * @param cursor the cursor returned by the previous call (optional)
+     * @param limit  the page size (default 500, max 5000)
+     * @return a page of changes with the next cursor, or 400 if the cursor is invalid
+     */
+    @GetMapping
+    public ResponseEntity<ChangePage> getChanges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ChangeFeedService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(changeFeedService.getChanges(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
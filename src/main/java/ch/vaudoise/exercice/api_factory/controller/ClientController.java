@@ -9,17 +9,33 @@
 
 package ch.vaudoise.exercice.api_factory.controller;
 
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
+import ch.vaudoise.exercice.api_factory.dto.ClientPage;
 import ch.vaudoise.exercice.api_factory.dto.UpdateClientRequest;
 import ch.vaudoise.exercice.api_factory.entity.Client;
 import ch.vaudoise.exercice.api_factory.entity.Person;
 import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.idempotency.IdempotencyService;
 import ch.vaudoise.exercice.api_factory.service.ClientService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -27,54 +43,176 @@ import java.util.Optional;
 public class ClientController {
 
     private final ClientService clientService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, ObjectMapper objectMapper,
+                            IdempotencyService idempotencyService) {
         this.clientService = clientService;
+        this.objectMapper = objectMapper;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * Creates a new individual client.
+     * With an Idempotency-Key header, retries of the same request return the
+     * client created by the first one instead of failing on the email check.
      *
-     * @param person the person data to create
+     * @param person         the person data to create
+     * @param idempotencyKey client-generated key identifying the request (optional)
      * @return the created person entity
      */
     @PostMapping("/person")
-    public ResponseEntity<Person> createPerson(@Valid @RequestBody Person person) {
-        return ResponseEntity.ok((Person) clientService.saveClient(person));
+    public ResponseEntity<Person> createPerson(
+            @Valid @RequestBody Person person,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /clients/person", person, Person.class,
+                () -> ResponseEntity.ok((Person) clientService.saveClient(person)));
     }
 
     /**
      * Creates a new company client.
+     * With an Idempotency-Key header, retries of the same request return the
+     * client created by the first one instead of failing on the email check.
      *
-     * @param company the company data to create
+     * @param company        the company data to create
+     * @param idempotencyKey client-generated key identifying the request (optional)
      * @return the created company entity
      */
     @PostMapping("/company")
-    public ResponseEntity<Company> createCompany(@Valid @RequestBody Company company) {
-        return ResponseEntity.ok((Company) clientService.saveClient(company));
+    public ResponseEntity<Company> createCompany(
+            @Valid @RequestBody Company company,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /clients/company", company, Company.class,
+                () -> ResponseEntity.ok((Company) clientService.saveClient(company)));
     }
 
     /**
-     * Retrieves all active clients.
+     * Creates many individual clients in one request.
+     * Accepts a newline-delimited JSON stream (or a JSON array) of persons,
+     * read incrementally and inserted in batched chunks.
      *
-     * @return list of active clients
+     * @param body the raw request body
+     * @return the number of created clients and the per-item errors
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/person/batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BatchImportResult> importPersons(InputStream body) throws IOException {
+        try (MappingIterator<Person> items = objectMapper.readerFor(Person.class).readValues(body)) {
+            return ResponseEntity.ok(clientService.importClients(items));
+        }
+    }
+
+    /**
+     * Creates many company clients in one request.
+     * Accepts a newline-delimited JSON stream (or a JSON array) of companies,
+     * read incrementally and inserted in batched chunks.
+     *
+     * @param body the raw request body
+     * @return the number of created clients and the per-item errors
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/company/batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BatchImportResult> importCompanies(InputStream body) throws IOException {
+        try (MappingIterator<Company> items = objectMapper.readerFor(Company.class).readValues(body)) {
+            return ResponseEntity.ok(clientService.importClients(items));
+        }
+    }
+
+    /**
+     * Retrieves all active clients as a JSON array.
+     * Kept for existing consumers: the response has the same shape as before pagination,
+     * but is written from a database cursor, one client at a time.
+     * New consumers should use GET /clients/page or GET /clients/stream.
+     *
+     * @return a streamed JSON array of the active clients
      */
     @GetMapping
-    public ResponseEntity<List<Client>> getAllClients() {
-        return ResponseEntity.ok(clientService.getAllClients());
+    public ResponseEntity<StreamingResponseBody> getAllClients() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreams.of(objectMapper, clientService::streamActiveClients));
+    }
+
+    /**
+     * Retrieves all active clients, one page at a time.
+     * Pages are ordered by ID; pass the returned "nextCursor" as "after"
+     * to read the following page. A null cursor means the last page was reached.
+     *
+     * @param after the cursor returned by the previous page (optional)
+     * @param limit the page size (default 100, max 1000)
+     * @return a page of active clients with the next cursor
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ClientPage> getClientsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + ClientService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(clientService.getClientsPage(after, limit));
+    }
+
+    /**
+     * Retrieves many clients by ID in one request (active or not, like GET /clients/{id}).
+     * Selected instead of the full listing when the "ids" parameter is present.
+     *
+     * @param ids the IDs of the clients (comma-separated or repeated parameter)
+     * @return the found clients keyed by ID; unknown IDs are omitted
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<Long, Client>> getClients(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(clientService.getClients(ids));
+    }
+
+    /**
+     * Streams all active clients as newline-delimited JSON.
+     * Each client is written to the response as soon as it is read from the
+     * database, so memory usage does not depend on the number of clients.
+     *
+     * @return a streamed body with one client per line
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllClients() {
+        StreamingResponseBody body = out -> clientService.streamActiveClients(client -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(client));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * Retrieves a specific client by ID.
+     * The ETag header carries the client's version, to send back as If-Match on updates.
+     *
+     * Supports conditional requests (If-None-Match / If-Modified-Since)
+     * based on the client's version and update timestamp: returns 304 when unchanged.
      *
-     * @param id the ID of the client
+     * @param id      the ID of the client
+     * @param request the current request, used for conditional GET checks
      * @return the client entity or 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Client> getClient(@PathVariable Long id) {
-        return clientService.getClient(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Client> getClient(@PathVariable Long id, WebRequest request) {
+        Optional<Client> clientOpt = clientService.getClient(id);
+        if (clientOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Client client = clientOpt.get();
+        if (client.getVersion() != null) {
+            long lastModified = client.getUpdateDate() == null
+                    ? -1
+                    : client.getUpdateDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (request.checkNotModified(VersionTags.etag(client.getVersion()), lastModified)) {
+                // 304 Not Modified: status and headers already set
+                return null;
+            }
+        }
+        return ResponseEntity.ok(client);
     }
 
     /**
@@ -82,15 +220,30 @@ public class ClientController {
      * Fields such as birthDate (for Person) and companyIdentifier (for Company)
      * cannot be updated.
      *
-     * @param id   the ID of the client to update
-     * @param body the new client data
-     * @return the updated client entity or 404 if not found
+     * With an If-Match header (the ETag of GET /clients/{id}), the update is only
+     * applied if the client was not modified in the meantime; otherwise 412 is returned
+     * and the client should be read again. The new ETag is returned.
+     *
+     * @param id      the ID of the client to update
+     * @param ifMatch the expected version (optional)
+     * @param body    the new client data
+     * @return the updated client entity, 404 if not found, 412 if the version changed
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateClient(@PathVariable Long id, @Valid @RequestBody UpdateClientRequest body) {
+    public ResponseEntity<?> updateClient(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @Valid @RequestBody UpdateClientRequest body) {
+        Long expectedVersion;
         try {
-            var updated = clientService.updateClient(id, body.getName(), body.getEmail(), body.getPhone());
-            return ResponseEntity.ok(updated);
+            expectedVersion = VersionTags.expectedVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            var updated = clientService.updateClient(id, body.getName(), body.getEmail(), body.getPhone(), expectedVersion);
+            return ResponseEntity.ok().eTag(VersionTags.etag(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -100,22 +253,18 @@ public class ClientController {
      * Restores a soft-deleted client (sets active = true).
      *
      * @param id the ID of the client to restore
-     * @return the restored client or 404 if not found
+     * @return the restored client, 404 if not found, 409 if modified concurrently
      */
     @PutMapping("/{id}/restore")
     public ResponseEntity<Client> restoreClient(@PathVariable Long id) {
-        Optional<Client> clientOpt = clientService.getClient(id);
-        if (clientOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
+        try {
+            return clientService.restoreClient(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            // Modified concurrently (e.g. deleted again) between read and write
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
-
-        Client client = clientOpt.get();
-
-        // If already active, return as is
-        if (client.isActive()) return ResponseEntity.ok(client);
-
-        client.setActive(true);
-        return ResponseEntity.ok(clientService.saveClient(client));
     }
 
     /**
@@ -131,4 +280,17 @@ public class ClientController {
         clientService.deleteClient(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Soft deletes several clients in one transaction.
+     * Same rules as the single delete: clients are marked inactive
+     * and their active contracts are closed.
+     *
+     * @param ids the IDs of the clients to delete
+     * @return the number of clients that were deactivated
+     */
+    @DeleteMapping
+    public ResponseEntity<Integer> deleteClients(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(clientService.deleteClients(ids));
+    }
 }
@@ -9,37 +9,80 @@
 
 package ch.vaudoise.exercice.api_factory.controller;
 
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
 import ch.vaudoise.exercice.api_factory.dto.ContractDTO;
+import ch.vaudoise.exercice.api_factory.dto.ContractPage;
 import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.dto.RepricingJobStatus;
+import ch.vaudoise.exercice.api_factory.dto.RepricingRequest;
+import ch.vaudoise.exercice.api_factory.dto.TotalsReportPage;
 import ch.vaudoise.exercice.api_factory.entity.Contract;
+import ch.vaudoise.exercice.api_factory.events.ContractEventBroadcaster;
+import ch.vaudoise.exercice.api_factory.idempotency.IdempotencyService;
+import ch.vaudoise.exercice.api_factory.service.ContractRepricingService;
 import ch.vaudoise.exercice.api_factory.service.ContractService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/contracts")
 public class ContractController {
 
     private final ContractService contractService;
+    private final ObjectMapper objectMapper;
+    private final ContractEventBroadcaster eventBroadcaster;
+    private final ContractRepricingService repricingService;
+    private final IdempotencyService idempotencyService;
 
-    public ContractController(ContractService contractService) {
+    public ContractController(ContractService contractService, ObjectMapper objectMapper,
+                              ContractEventBroadcaster eventBroadcaster, ContractRepricingService repricingService,
+                              IdempotencyService idempotencyService) {
         this.contractService = contractService;
+        this.objectMapper = objectMapper;
+        this.eventBroadcaster = eventBroadcaster;
+        this.repricingService = repricingService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * Creates a new contract for an existing client.
      * Automatically sets startDate to current date if not provided.
      *
-     * @param dto the contract creation data
+     * With an Idempotency-Key header, retries of the same request return the
+     * contract created by the first one instead of creating a duplicate.
+     *
+     * @param dto            the contract creation data
+     * @param idempotencyKey client-generated key identifying the request (optional)
      * @return the created contract view
      */
     @PostMapping
-    public ResponseEntity<ContractView> createContract(@RequestBody ContractDTO dto) {
+    public ResponseEntity<ContractView> createContract(
+            @RequestBody ContractDTO dto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /contracts", dto, ContractView.class,
+                () -> doCreateContract(dto));
+    }
+
+    private ResponseEntity<ContractView> doCreateContract(ContractDTO dto) {
         if (dto.getClientId() == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -60,61 +103,194 @@ public class ContractController {
     }
 
     /**
-     * Retrieves all contracts (active and inactive).
+     * Creates many contracts in one request.
+     * Accepts either a JSON array or a newline-delimited JSON stream of contracts.
+     * The body is read incrementally and contracts are inserted in batched chunks;
+     * invalid items are reported individually without aborting the import.
+     *
+     * @param body the raw request body
+     * @return the number of created contracts and the per-item errors
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchImportResult> createContracts(InputStream body) throws IOException {
+        try (MappingIterator<ContractDTO> items = objectMapper.readerFor(ContractDTO.class).readValues(body)) {
+            return ResponseEntity.ok(contractService.importContracts(items));
+        }
+    }
+
+    /**
+     * Retrieves all contracts (active and inactive) as a JSON array.
+     * Kept for existing consumers: the response has the same shape as before pagination,
+     * but is written from a database cursor, one contract at a time.
+     * New consumers should use GET /contracts/page or GET /contracts/stream.
      *
-     * @return list of all contracts
+     * @return a streamed JSON array of all contract views
      */
     @GetMapping
-    public ResponseEntity<List<ContractView>> getAllContracts() {
-        var contracts = contractService.getAllContracts()
-                .stream()
-                .map(ContractView::from)
-                .toList();
-        return ResponseEntity.ok(contracts);
+    public ResponseEntity<StreamingResponseBody> getAllContracts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreams.of(objectMapper, contractService::streamAllContracts));
+    }
+
+    /**
+     * Retrieves all contracts (active and inactive), one page at a time.
+     * Pages are ordered by ID; pass the returned "nextCursor" as "after"
+     * to read the following page. A null cursor means the last page was reached.
+     *
+     * @param after the cursor returned by the previous page (optional)
+     * @param limit the page size (default 100, max 1000)
+     * @return a page of contract views with the next cursor
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ContractPage> getContractsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + ContractService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(contractService.getContractsPage(after, limit));
+    }
+
+    /**
+     * Streams all contracts (active and inactive) as newline-delimited JSON.
+     * Each contract is written to the response as soon as it is read from the
+     * database, so memory usage does not depend on the number of contracts.
+     *
+     * @return a streamed body with one contract view per line
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllContracts() {
+        StreamingResponseBody body = out -> contractService.streamAllContracts(view -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(view));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Subscribes to contract changes as Server-Sent Events.
+     * A "contract" event carrying the new contract view and the versions of the contract
+     * and its client is pushed after each committed creation, amount update, repricing chunk,
+     * client update or client deletion. Consumers should ignore an event whose versions are lower than
+     * those they already hold for that contract. Subscribers that do not
+     * keep up are disconnected and should reconnect, then re-read the contracts they follow.
+     *
+     * @param clientId only push the contracts of this client (optional)
+     * @return the event stream
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToContractEvents(@RequestParam(required = false) Long clientId) {
+        return eventBroadcaster.subscribe(clientId);
+    }
+
+    /**
+     * Reports the number and total amount of active contracts of every client,
+     * one page at a time, computed by a single aggregate query per page.
+     * Pass the returned "nextCursor" as "after" to read the following page.
+     *
+     * @param asOf      the date at which contracts are considered active (default today)
+     * @param clientIds restricts the report to these clients (optional)
+     * @param after     the cursor returned by the previous page (optional)
+     * @param limit     the page size (default 100, max 1000)
+     * @return a page of client totals with the next cursor
+     */
+    @GetMapping("/report/totals")
+    public ResponseEntity<TotalsReportPage> getTotalsReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(required = false) List<Long> clientIds,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + ContractService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(contractService.getTotalsReportPage(asOf, clientIds, after, limit));
+    }
+
+    /**
+     * Streams the whole totals report as newline-delimited JSON, one client per line.
+     *
+     * @param asOf the date at which contracts are considered active (default today)
+     * @return a streamed body with one client total per line
+     */
+    @GetMapping(value = "/report/totals/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTotalsReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        StreamingResponseBody body = out -> contractService.streamTotalsReport(asOf, total -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(total));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * Retrieves all active contracts for a client.
      * Optionally filters by updateDate if the "updatedAfter" parameter is provided.
      *
+     * Supports conditional requests (If-None-Match / If-Modified-Since):
+     * returns 304 without reading the contracts when nothing changed.
+     *
      * @param clientId     the client's ID
      * @param updatedAfter optional filter for last modification date
+     * @param request      the current request, used for conditional GET checks
      * @return list of active (and optionally filtered) contract views
      */
     @GetMapping("/client/{clientId}")
     public ResponseEntity<List<ContractView>> getActiveContractsByClient(
             @PathVariable Long clientId,
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updatedAfter) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updatedAfter,
+            WebRequest request) {
 
-        var contracts = contractService.getActiveContractsForClient(clientId);
-
-        if (updatedAfter != null) {
-            contracts = contracts.stream()
-                    .filter(c -> c.getUpdateDate() != null && c.getUpdateDate().toLocalDate().isAfter(updatedAfter))
-                    .toList();
+        LocalDate today = LocalDate.now();
+        var version = contractService.getContractsVersion(clientId);
+        if (version.isPresent()
+                && request.checkNotModified(version.get().etag("active-" + today), version.get().lastModifiedActive(today))) {
+            // 304 Not Modified: status and headers already set
+            return null;
         }
 
-        var views = contracts.stream()
-                .map(ContractView::from)
-                .toList();
+        var views = updatedAfter == null
+                ? contractService.getActiveContractsForClient(clientId)
+                : contractService.getActiveContractsUpdatedAfter(clientId, updatedAfter);
 
         return ResponseEntity.ok(views);
     }
 
     /**
      * Retrieves all contracts (active and ended) for a specific client.
+     * Contracts ended for longer than the retention period are archived and only
+     * listed when "includeArchived" is set.
      *
-     * @param clientId the client's ID
+     * Supports conditional requests (If-None-Match / If-Modified-Since):
+     * returns 304 without reading the contracts when nothing changed
+     * (archiving a contract removes it from the count, so it also changes the ETag).
+     *
+     * @param clientId        the client's ID
+     * @param includeArchived also list archived contracts (default false)
+     * @param request         the current request, used for conditional GET checks
      * @return list of all contract views
      */
     @GetMapping("/client/{clientId}/all")
-    public ResponseEntity<List<ContractView>> getAllContractsByClient(@PathVariable Long clientId) {
-        var contracts = contractService.getAllContractsForClient(clientId)
-                .stream()
-                .map(ContractView::from)
-                .toList();
-        return ResponseEntity.ok(contracts);
+    public ResponseEntity<List<ContractView>> getAllContractsByClient(
+            @PathVariable Long clientId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest request) {
+        var version = contractService.getContractsVersion(clientId);
+        if (version.isPresent()
+                && request.checkNotModified(version.get().etag(includeArchived ? "all-archived" : "all"),
+                                            version.get().lastModified())) {
+            // 304 Not Modified: status and headers already set
+            return null;
+        }
+        return ResponseEntity.ok(contractService.getAllContractsForClient(clientId, includeArchived));
     }
 
     /**
@@ -130,32 +306,97 @@ public class ContractController {
             @PathVariable Long clientId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
 
-        var contracts = contractService.getActiveContractsForClient(clientId).stream()
-                .filter(c -> c.getUpdateDate() != null && c.getUpdateDate().toLocalDate().isAfter(date))
-                .map(ContractView::from)
-                .toList();
+        return ResponseEntity.ok(contractService.getActiveContractsUpdatedAfter(clientId, date));
+    }
 
-        return ResponseEntity.ok(contracts);
+    /**
+     * Retrieves a specific contract.
+     * The ETag header carries the contract's version, to send back as If-Match on updates.
+     * Supports If-None-Match: returns 304 when unchanged.
+     *
+     * @param id      the contract ID
+     * @param request the current request, used for conditional GET checks
+     * @return the contract view or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ContractView> getContract(@PathVariable Long id, WebRequest request) {
+        var contract = contractService.getContract(id);
+        if (contract.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(VersionTags.etag(contract.get().getVersion()))) {
+            // 304 Not Modified: status and headers already set
+            return null;
+        }
+        return ResponseEntity.ok(ContractView.from(contract.get()));
     }
 
     /**
      * Updates the cost amount of a specific contract.
      * Automatically updates the "updateDate" to the current timestamp.
      *
-     * @param id    the contract ID
-     * @param value the new cost amount
-     * @return the updated contract view
+     * With an If-Match header (the ETag of GET /contracts/{id}), the update is only
+     * applied if the contract was not modified in the meantime; otherwise 412 is returned
+     * and the contract should be read again. The new ETag is returned.
+     *
+     * @param id      the contract ID
+     * @param value   the new cost amount
+     * @param ifMatch the expected version (optional)
+     * @return the updated contract view, 404 if not found, 412 if the version changed
      */
     @PutMapping("/{id}/amount")
-    public ResponseEntity<ContractView> updateContractAmount(@PathVariable Long id, @RequestParam Double value) {
+    public ResponseEntity<ContractView> updateContractAmount(
+            @PathVariable Long id,
+            @RequestParam Double value,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion;
         try {
-            Contract updated = contractService.updateContractAmount(id, value);
-            return ResponseEntity.ok(ContractView.from(updated));
+            expectedVersion = VersionTags.expectedVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Contract updated = contractService.updateContractAmount(id, value, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionTags.etag(updated.getVersion())).body(ContractView.from(updated));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Starts a bulk repricing job, run in the background in chunks of set-based UPDATEs.
+     * The body holds either explicit amounts ({"amounts": [{"id": 1, "amount": 120.0}, ...]})
+     * or a rule applied to the contracts active today ({"percent": 2.5, "clientIds": [1, 2]};
+     * without clientIds, all clients). The update date of each repriced contract is refreshed.
+     *
+     * @param request the repricing to apply
+     * @return HTTP 202 with the job status and its location, or 400 if the request is invalid
+     */
+    @PostMapping("/repricing")
+    public ResponseEntity<RepricingJobStatus> startRepricing(@RequestBody RepricingRequest request) {
+        try {
+            RepricingJobStatus job = repricingService.submit(request);
+            return ResponseEntity.accepted().location(URI.create("/contracts/repricing/" + job.id())).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Reports the progress of a repricing job (status, contracts processed and updated).
+     *
+     * @param jobId the ID returned when the job was started
+     * @return the job status, or 404 if unknown or expired
+     */
+    @GetMapping("/repricing/{jobId}")
+    public ResponseEntity<RepricingJobStatus> getRepricingJob(@PathVariable String jobId) {
+        return repricingService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Calculates the total amount of all active contracts for a specific client.
      *
@@ -166,4 +407,15 @@ public class ContractController {
     public ResponseEntity<Double> getContractsTotal(@PathVariable Long clientId) {
         return ResponseEntity.ok(contractService.getActiveContractsTotal(clientId));
     }
+
+    /**
+     * Calculates the total amount of active contracts for many clients in one request.
+     *
+     * @param clientIds the IDs of the clients (comma-separated or repeated parameter)
+     * @return the totals keyed by client ID (0 for clients without active contracts)
+     */
+    @GetMapping("/totals")
+    public ResponseEntity<Map<Long, Double>> getContractsTotals(@RequestParam List<Long> clientIds) {
+        return ResponseEntity.ok(contractService.getActiveContractsTotals(clientIds));
+    }
 }
@@ -0,0 +1,70 @@
+/**
+ * =============================================================
+ *  File: ContractReactiveController.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Non-blocking read API for contracts, backed by R2DBC.
+ *               Intended for partner traffic with many concurrent or slow
+ *               consumers: no JDBC connection or request thread is held
+ *               while results are written.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.controller;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.repository.ContractReactiveRepository;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/reactive/contracts")
+public class ContractReactiveController {
+
+    private final ContractReactiveRepository contractReactiveRepository;
+
+    public ContractReactiveController(ContractReactiveRepository contractReactiveRepository) {
+        this.contractReactiveRepository = contractReactiveRepository;
+    }
+
+    /**
+     * Retrieves all active contracts for a client.
+     * Written as newline-delimited JSON as they are read (the default), or as a
+     * JSON array when requested with "Accept: application/json": Spring MVC then
+     * collects the whole list before writing it.
+     *
+     * @param clientId the client's ID
+     * @return the active contract views
+     */
+    @GetMapping(value = "/client/{clientId}", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<ContractView> getActiveContractsByClient(@PathVariable Long clientId) {
+        return contractReactiveRepository.findActiveContractViewsByClient(clientId, LocalDate.now());
+    }
+
+    /**
+     * Retrieves all contracts (active and ended) for a specific client, as newline-delimited JSON.
+     * Each contract is written as soon as it is read, and reading from the database
+     * is paced by the consumer (backpressure). No JSON array is offered: it would be
+     * buffered entirely before being written, whatever the number of contracts.
+     *
+     * @param clientId the client's ID
+     * @return all contract views of the client
+     */
+    @GetMapping(value = "/client/{clientId}/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ContractView> getAllContractsByClient(@PathVariable Long clientId) {
+        return contractReactiveRepository.findAllContractViewsByClient(clientId);
+    }
+
+    /**
+     * Streams all contracts as newline-delimited JSON, paced by the consumer.
+     *
+     * @return all contract views
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ContractView> streamAllContracts() {
+        return contractReactiveRepository.streamAll();
+    }
+}
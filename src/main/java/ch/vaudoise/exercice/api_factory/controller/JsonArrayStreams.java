@@ -0,0 +1,50 @@
+/**
+ * =============================================================
+ *  File: JsonArrayStreams.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Writes a streamed sequence of items as a single JSON
+ *               array, element by element, for the list endpoints kept
+ *               for existing consumers (same body as a List response,
+ *               without holding the whole list in memory).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+final class JsonArrayStreams {
+
+    private JsonArrayStreams() {
+    }
+
+    /**
+     * Builds a response body writing each item passed to the sink as an element of a JSON array.
+     *
+     * @param objectMapper the mapper serializing the items
+     * @param source       pushes the items, one at a time, to the given sink
+     * @param <T>          the type of the items
+     * @return the streamed body
+     */
+    static <T> StreamingResponseBody of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        return out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.writeStartArray();
+            source.accept(item -> {
+                try {
+                    objectMapper.writeValue(generator, item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.flush();
+        };
+    }
+}
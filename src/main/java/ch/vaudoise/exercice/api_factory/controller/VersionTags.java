@@ -0,0 +1,50 @@
+/**
+ * =============================================================
+ *  File: VersionTags.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Conversion between entity versions and the ETag /
+ *               If-Match header values used for optimistic locking.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.controller;
+
+final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    /**
+     * Builds the strong ETag of an entity version.
+     *
+     * @param version the entity version
+     * @return the ETag value (quoted)
+     */
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Reads the version expected by an If-Match header.
+     * Accepts a single strong ETag, quoted or not; "*" and a missing header mean
+     * that any version is accepted.
+     *
+     * @param ifMatch the If-Match header value, or null
+     * @return the expected version, or null if any version is accepted
+     * @throws IllegalArgumentException if the header is not a single version ETag
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * =============================================================
+ *  File: BatchImportError.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object describing why a single
+ *               item of a bulk import was rejected.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+public record BatchImportError(
+        int index,
+        String message
+) {
+}
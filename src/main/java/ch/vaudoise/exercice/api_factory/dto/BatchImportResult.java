@@ -0,0 +1,32 @@
+/**
+ * =============================================================
+ *  File: BatchImportResult.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object summarizing the outcome
+ *               of a bulk import: number of created and rejected rows
+ *               and the errors of the first rejected items.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.util.List;
+
+public record BatchImportResult(
+        int created,
+        int failed,
+        List<BatchImportError> errors,
+        int errorsOmitted
+) {
+    /**
+     * Builds a result from the created count and the reported item errors.
+     *
+     * @param created number of items persisted
+     * @param failed  number of items rejected
+     * @param errors  errors of the rejected items (at most a bounded number of them)
+     * @return the import summary; errorsOmitted counts the rejections without a reported error
+     */
+    public static BatchImportResult of(int created, int failed, List<BatchImportError> errors) {
+        return new BatchImportResult(created, failed, errors, failed - errors.size());
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * =============================================================
+ *  File: ChangeCursor.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Position of a consumer in the change feed: the last
+ *               (updateDate, id) pair read for contracts and for clients,
+ *               exchanged with API consumers as an opaque string.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record ChangeCursor(
+        LocalDateTime contractUpdateDate,
+        Long contractId,
+        LocalDateTime clientUpdateDate,
+        Long clientId
+) {
+    /** Lower bound of the update timestamps, used when a feed is read from the beginning. */
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /** Cursor pointing before the first change. */
+    public static final ChangeCursor START = new ChangeCursor(ORIGIN, 0L, ORIGIN, 0L);
+
+    /**
+     * Returns a cursor with a new contract position.
+     *
+     * @param updateDate the update timestamp of the last contract read
+     * @param id         the ID of the last contract read
+     * @return the advanced cursor
+     */
+    public ChangeCursor withContract(LocalDateTime updateDate, Long id) {
+        return new ChangeCursor(updateDate, id, clientUpdateDate, clientId);
+    }
+
+    /**
+     * Returns a cursor with a new client position.
+     *
+     * @param updateDate the update timestamp of the last client read
+     * @param id         the ID of the last client read
+     * @return the advanced cursor
+     */
+    public ChangeCursor withClient(LocalDateTime updateDate, Long id) {
+        return new ChangeCursor(contractUpdateDate, contractId, updateDate, id);
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe string.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = contractUpdateDate + "|" + contractId + "|" + clientUpdateDate + "|" + clientId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously returned by encode().
+     *
+     * @param value the encoded cursor, or null to start from the beginning
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the value is not a valid cursor
+     */
+    public static ChangeCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            return new ChangeCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]),
+                    LocalDateTime.parse(parts[2]), Long.valueOf(parts[3]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * =============================================================
+ *  File: ChangeEvent.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object describing one entry of
+ *               the change feed: the current state of a modified contract
+ *               or client, or a tombstone for a soft-deleted client.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import ch.vaudoise.exercice.api_factory.entity.Client;
+
+import java.time.LocalDateTime;
+
+public record ChangeEvent(
+        String type,
+        Long id,
+        LocalDateTime updateDate,
+        boolean deleted,
+        Object data
+) {
+    public static final String CONTRACT = "contract";
+    public static final String CLIENT = "client";
+
+    /**
+     * Builds the event of a modified contract.
+     *
+     * @param change the contract state read by the feed query
+     * @return the contract event
+     */
+    public static ChangeEvent of(ContractChange change) {
+        return new ChangeEvent(CONTRACT, change.id(), change.updateDate(), false, change.view());
+    }
+
+    /**
+     * Builds the event of a modified client.
+     * Soft-deleted clients are published as tombstones, without their data.
+     *
+     * @param client the client read by the feed query
+     * @return the client event
+     */
+    public static ChangeEvent of(Client client) {
+        return client.isActive()
+                ? new ChangeEvent(CLIENT, client.getId(), client.getUpdateDate(), false, client)
+                : new ChangeEvent(CLIENT, client.getId(), client.getUpdateDate(), true, null);
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * =============================================================
+ *  File: ChangePage.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object wrapping one page of the
+ *               change feed, ordered by update timestamp.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.util.List;
+
+public record ChangePage(
+        List<ChangeEvent> items,
+        String nextCursor,
+        boolean hasMore
+) {
+}
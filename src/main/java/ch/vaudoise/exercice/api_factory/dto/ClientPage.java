@@ -0,0 +1,33 @@
+/**
+ * =============================================================
+ *  File: ClientPage.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object wrapping one page of
+ *               active clients returned by keyset (cursor) pagination.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import ch.vaudoise.exercice.api_factory.entity.Client;
+
+import java.util.List;
+
+public record ClientPage(
+        List<Client> items,
+        Long nextCursor
+) {
+    /**
+     * Builds a page from the fetched items.
+     * The next cursor is the ID of the last item when the page is full,
+     * or null when there are no more clients to read.
+     *
+     * @param items the clients of this page, ordered by ID
+     * @param limit the requested page size
+     * @return the page with its next cursor
+     */
+    public static ClientPage of(List<Client> items, int limit) {
+        Long next = items.size() < limit ? null : items.get(items.size() - 1).getId();
+        return new ClientPage(items, next);
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * =============================================================
+ *  File: ClientTotal.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object holding the number and
+ *               total cost amount of a client's active contracts.
+ *               Used by the portfolio totals report.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+public record ClientTotal(
+        Long clientId,
+        String clientName,
+        Long contractCount,
+        Double total
+) {
+}
@@ -0,0 +1,16 @@
+/**
+ * =============================================================
+ *  File: ContractAmount.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Data Transfer Object holding the new cost amount of
+ *               one contract in a bulk repricing request.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+public record ContractAmount(
+        Long id,
+        Double amount
+) {
+}
@@ -0,0 +1,32 @@
+/**
+ * =============================================================
+ *  File: ContractChange.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Projection of a contract read by the change feed:
+ *               the contract view plus its update timestamp.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ContractChange(
+        Long id,
+        Double costAmount,
+        LocalDate startDate,
+        LocalDate endDate,
+        Long clientId,
+        String clientName,
+        LocalDateTime updateDate
+) {
+    /**
+     * Returns the public view of the contract (without the update timestamp).
+     *
+     * @return the contract view
+     */
+    public ContractView view() {
+        return new ContractView(id, costAmount, startDate, endDate, clientId, clientName);
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * =============================================================
+ *  File: ContractDelta.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Contract view pushed to Server-Sent Events subscribers,
+ *               with the versions of the contract and of its client so
+ *               that consumers can drop deltas older than what they hold.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import ch.vaudoise.exercice.api_factory.entity.Contract;
+
+import java.time.LocalDate;
+
+public record ContractDelta(
+        Long id,
+        Double costAmount,
+        LocalDate startDate,
+        LocalDate endDate,
+        Long clientId,
+        String clientName,
+        Long version,
+        Long clientVersion
+) {
+    /**
+     * Captures the current state of a contract and its client.
+     *
+     * @param c the Contract entity, with its client
+     * @return the delta of the contract
+     */
+    public static ContractDelta from(Contract c) {
+        return new ContractDelta(
+            c.getId(),
+            c.getCostAmount(),
+            c.getStartDate(),
+            c.getEndDate(),
+            c.getClient().getId(),
+            c.getClient().getName(),
+            c.getVersion(),
+            c.getClient().getVersion()
+        );
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * =============================================================
+ *  File: ContractPage.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object wrapping one page of
+ *               contracts returned by keyset (cursor) pagination.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.util.List;
+
+public record ContractPage(
+        List<ContractView> items,
+        Long nextCursor
+) {
+    /**
+     * Builds a page from the fetched items.
+     * The next cursor is the ID of the last item when the page is full,
+     * or null when there are no more contracts to read.
+     *
+     * @param items the contracts of this page, ordered by ID
+     * @param limit the requested page size
+     * @return the page with its next cursor
+     */
+    public static ContractPage of(List<ContractView> items, int limit) {
+        Long next = items.size() < limit ? null : items.get(items.size() - 1).id();
+        return new ContractPage(items, next);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * =============================================================
+ *  File: ContractsVersion.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Lightweight summary of the state of a client's contracts
+ *               (last update timestamps and contract count), used to answer
+ *               conditional GET requests without loading the contracts.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public record ContractsVersion(
+        LocalDateTime clientUpdateDate,
+        LocalDateTime lastContractUpdate,
+        long contractCount
+) {
+    /**
+     * Returns the most recent modification of the client or any of its contracts.
+     *
+     * @return the last modification time in epoch milliseconds, or -1 if unknown
+     */
+    public long lastModified() {
+        long client = toEpochMilli(clientUpdateDate);
+        long contract = toEpochMilli(lastContractUpdate);
+        return Math.max(client, contract);
+    }
+
+    /**
+     * Returns the last modification time of a list that only contains contracts
+     * active today: it also changes at midnight, when contracts may expire.
+     *
+     * @param today the reference date of the active check
+     * @return the last modification time in epoch milliseconds
+     */
+    public long lastModifiedActive(LocalDate today) {
+        return Math.max(lastModified(), toEpochMilli(today.atStartOfDay()));
+    }
+
+    /**
+     * Builds a strong ETag for a representation of the client's contracts.
+     * Any contract insertion or update, or any client update, yields a new value.
+     *
+     * @param scope identifies the representation (e.g. "all" or the active reference date)
+     * @return the ETag value (without quotes)
+     */
+    public String etag(String scope) {
+        return scope + "-" + toEpochMilli(clientUpdateDate) + "-" + toEpochMilli(lastContractUpdate) + "-" + contractCount;
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
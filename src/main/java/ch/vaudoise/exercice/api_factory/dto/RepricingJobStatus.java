@@ -0,0 +1,28 @@
+/**
+ * =============================================================
+ *  File: RepricingJobStatus.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object reporting the progress
+ *               of a bulk repricing job.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.time.LocalDateTime;
+
+public record RepricingJobStatus(
+        String id,
+        String status,
+        long total,
+        long processed,
+        long updated,
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt
+) {
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+}
@@ -0,0 +1,40 @@
+/**
+ * =============================================================
+ *  File: RepricingRequest.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Data Transfer Object describing a bulk repricing job:
+ *               either explicit (contract ID, amount) pairs, or a
+ *               percentage applied to the active contracts of a set
+ *               of clients (or of all clients).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class RepricingRequest {
+
+    /**
+     * Explicit new amounts, one per contract.
+     * Mutually exclusive with "percent".
+     */
+    private List<ContractAmount> amounts;
+
+    /**
+     * Relative change applied to active contracts (e.g. 2.5 for +2.5%, -1 for -1%).
+     * Must be greater than -100. Mutually exclusive with "amounts".
+     */
+    private Double percent;
+
+    /**
+     * Clients whose active contracts are repriced by "percent".
+     * Null or empty means all clients.
+     */
+    private List<Long> clientIds;
+}
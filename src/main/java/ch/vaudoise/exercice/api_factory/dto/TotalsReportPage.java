@@ -0,0 +1,34 @@
+/**
+ * =============================================================
+ *  File: TotalsReportPage.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Read-only Data Transfer Object wrapping one page of the
+ *               portfolio totals report, ordered by client ID.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record TotalsReportPage(
+        LocalDate asOf,
+        List<ClientTotal> items,
+        Long nextCursor
+) {
+    /**
+     * Builds a page from the fetched items.
+     * The next cursor is the client ID of the last item when the page is full,
+     * or null when the end of the report was reached.
+     *
+     * @param asOf  the reference date of the active-contract check
+     * @param items the client totals of this page, ordered by client ID
+     * @param limit the requested page size
+     * @return the page with its next cursor
+     */
+    public static TotalsReportPage of(LocalDate asOf, List<ClientTotal> items, int limit) {
+        Long next = items.size() < limit ? null : items.get(items.size() - 1).clientId();
+        return new TotalsReportPage(asOf, items, next);
+    }
+}
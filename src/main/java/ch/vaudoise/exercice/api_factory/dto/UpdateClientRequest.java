@@ -10,8 +10,9 @@
 
 package ch.vaudoise.exercice.api_factory.dto;
 
+import ch.vaudoise.exercice.api_factory.validation.ValidEmail;
+import ch.vaudoise.exercice.api_factory.validation.ValidPhone;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -30,19 +31,13 @@ public class UpdateClientRequest {
      * Updated email address of the client.
      * Must follow a valid email format.
      */
-    @Pattern(
-        regexp = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$",
-        message = "Invalid email format"
-    )
+    @ValidEmail
     private String email;
 
     /**
      * Updated phone number of the client.
      * Accepts numbers with optional '+' prefix and no special characters.
      */
-    @Pattern(
-        regexp = "^[+]?([0-9][\\s-]?){7,15}$",
-        message = "Invalid phone number format"
-    )
+    @ValidPhone
     private String phone;
 }
@@ -10,24 +10,37 @@
 
 package ch.vaudoise.exercice.api_factory.entity;
 
+import ch.vaudoise.exercice.api_factory.validation.ContactFields;
+import ch.vaudoise.exercice.api_factory.validation.ValidEmail;
+import ch.vaudoise.exercice.api_factory.validation.ValidPhone;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Getter
 @Setter
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+@Table(indexes = {
+    // Email uniqueness check among active clients (existsByEmailAndActiveTrue)
+    @Index(name = "idx_client_email_active", columnList = "email, active"),
+    // Change feed: keyset scan on (update_date, id)
+    @Index(name = "idx_client_update_date_id", columnList = "update_date, id")
+})
 public abstract class Client {
 
-    /** Unique identifier for the client (auto-generated). */
+    /**
+     * Unique identifier for the client (auto-generated).
+     * Uses a pooled sequence so that bulk imports can batch their inserts.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+    @SequenceGenerator(name = "client_seq", sequenceName = "client_seq", allocationSize = 50)
     private Long id;
 
     /** Full name of the client (person or company contact). */
@@ -36,18 +49,12 @@ public abstract class Client {
 
     /** Validated email address. Must follow the standard email format. */
     @NotBlank
-    @Pattern(
-        regexp = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$",
-        message = "Invalid email format"
-    )
+    @ValidEmail
     @Column(nullable = false)
     private String email;
 
     /** Validated phone number allowing spaces, hyphens, and optional '+' prefix. */
-    @Pattern(
-        regexp = "^[+]?([0-9][\\s-]?){7,15}$",
-        message = "Invalid phone number format"
-    )
+    @ValidPhone
     private String phone;
 
     /**
@@ -60,17 +67,41 @@ public abstract class Client {
     private List<Contract> contracts;
 
     /**
-     * Ensures phone number is stored without spaces or hyphens before saving or updating.
+     * Prepares the client before saving or updating:
+     * normalizes the phone number and refreshes the update timestamp.
      */
     @PrePersist
     @PreUpdate
+    public void onSave() {
+        normalizePhone();
+        updateDate = LocalDateTime.now();
+    }
+
+    /**
+     * Ensures phone number is stored without spaces or hyphens.
+     */
     public void normalizePhone() {
-        if (phone != null) {
-            phone = phone.replaceAll("[\\s-]", "");
-        }
+        phone = ContactFields.normalizePhone(phone);
     }
 
     /** Indicates whether the client is active (used for soft delete). */
     @Column(nullable = false)
     private boolean active = true;
+
+    /**
+     * Timestamp of the last update (automatically maintained).
+     * Exposed through the Last-Modified/ETag headers and the change feed rather than the JSON body.
+     * Null for clients created before this column existed (such clients enter the change feed
+     * at their next modification).
+     */
+    @JsonIgnore
+    private LocalDateTime updateDate;
+
+    /**
+     * Optimistic locking version, incremented by every update (including bulk UPDATE statements).
+     * Exposed as the ETag of GET /clients/{id} and checked against If-Match on updates.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
 }
@@ -22,11 +22,26 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
+@Table(indexes = {
+    // Active-contract lookups and totals: client_id equality + end_date range
+    @Index(name = "idx_contract_client_end_date", columnList = "client_id, end_date"),
+    // "updated after" filters: client_id equality + update_date range
+    @Index(name = "idx_contract_client_update_date", columnList = "client_id, update_date"),
+    // Change feed: keyset scan on (update_date, id)
+    @Index(name = "idx_contract_update_date_id", columnList = "update_date, id"),
+    // Archival of expired contracts: end_date range
+    @Index(name = "idx_contract_end_date", columnList = "end_date")
+})
 public class Contract {
 
-    /** Unique identifier for the contract (auto-generated). */
+    /**
+     * Unique identifier for the contract (auto-generated).
+     * Uses a pooled sequence (50 ids per round-trip) so that inserts can be
+     * batched by Hibernate, which is impossible with IDENTITY columns.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contract_seq")
+    @SequenceGenerator(name = "contract_seq", sequenceName = "contract_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -54,6 +69,13 @@ public class Contract {
     @Column(nullable = false)
     private LocalDateTime updateDate = LocalDateTime.now();
 
+    /**
+     * Optimistic locking version, incremented by every update (including bulk UPDATE statements).
+     * Exposed as the ETag of GET /contracts/{id} and checked against If-Match on updates.
+     */
+    @Version
+    private Long version;
+
     /**
      * Updates the 'updateDate' timestamp before saving modifications.
      */
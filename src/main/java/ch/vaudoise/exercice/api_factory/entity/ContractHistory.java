@@ -0,0 +1,60 @@
+/**
+ * =============================================================
+ *  File: ContractHistory.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Archived insurance contract. Contracts ended for longer
+ *               than the retention period are moved here from the Contract
+ *               table, which then only holds the working set.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(indexes = {
+    // "all contracts" lookups of a client including history
+    @Index(name = "idx_contract_history_client", columnList = "client_id")
+})
+public class ContractHistory {
+
+    /** ID of the original contract (kept when archived). */
+    @Id
+    private Long id;
+
+    /** ID of the client the contract belonged to. */
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    /** Start date of the contract. */
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    /** End date of the contract (always set: only ended contracts are archived). */
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    /** Cost amount of the contract. */
+    @Column(nullable = false)
+    private Double costAmount;
+
+    /** Last update timestamp of the contract before archiving. */
+    @Column(nullable = false)
+    private LocalDateTime updateDate;
+
+    /** Time at which the contract was archived. */
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,51 @@
+/**
+ * =============================================================
+ *  File: IdempotencyRecord.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Response recorded for an Idempotency-Key, shared by all
+ *               nodes when the database idempotency store is enabled.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(indexes = {
+    // Purge of expired records
+    @Index(name = "idx_idempotency_record_created_at", columnList = "created_at")
+})
+public class IdempotencyRecord {
+
+    /** Endpoint and Idempotency-Key header value. */
+    @Id
+    @Column(name = "idempotency_key", length = 320)
+    private String idempotencyKey;
+
+    /** Hash of the request body, to detect a key reused for another request. */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /** HTTP status of the recorded response, 0 while the request is in progress. */
+    @Column(nullable = false)
+    private int status;
+
+    /** JSON body of the recorded response. */
+    @Column(length = 65535)
+    private String body;
+
+    /** Time at which the key was first received. */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
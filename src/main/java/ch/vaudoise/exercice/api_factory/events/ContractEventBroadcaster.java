@@ -0,0 +1,329 @@
+/**
+ * =============================================================
+ *  File: ContractEventBroadcaster.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Pushes contract deltas to Server-Sent Events
+ *               subscribers once the modifying transaction has committed.
+ *               Deltas are fanned out from a single queue, in the order
+ *               their transactions committed. Each subscriber has a bounded
+ *               buffer drained by its own sender task; subscribers that fall
+ *               behind are disconnected instead of slowing down the writers.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.events;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractDelta;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class ContractEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ContractEventBroadcaster.class);
+
+    /** SSE event name of a contract delta. */
+    public static final String CONTRACT_EVENT = "contract";
+
+    /** Maximum number of client IDs bound in a single query. */
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final ContractRepository contractRepository;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    /** Subscribers of all contracts. */
+    private final Set<Subscriber> allSubscribers = ConcurrentHashMap.newKeySet();
+
+    /** Subscribers of the contracts of one client, by client ID. */
+    private final Map<Long, Set<Subscriber>> clientSubscribers = new ConcurrentHashMap<>();
+
+    /** Fans the committed deltas out to the subscriber buffers, one change at a time. */
+    private final Executor dispatcher;
+
+    /** Runs the sender tasks (at most one per subscriber), so that writers never wait on a subscriber. */
+    private final Executor senders;
+
+    /**
+     * Creates the broadcaster with a single dispatch thread and its sender threads.
+     * Senders are virtual threads when virtual threads are enabled (virtual profile):
+     * a subscriber stuck in a socket write then only holds a virtual thread.
+     * Otherwise they share a fixed pool of app.sse.sender-threads platform threads:
+     * at most that many sends are in progress, and a send blocked on a stalled
+     * connection holds its thread until the servlet container's write timeout,
+     * while the other subscribers' buffers fill up and get them disconnected.
+     *
+     * @param contractRepository used to read the contracts of modified clients
+     * @param bufferSize         maximum number of pending events per subscriber
+     * @param timeout            lifetime of a subscription (clients reconnect after it)
+     * @param senderThreads      size of the platform sender pool
+     * @param environment        used to detect whether virtual threads are enabled
+     */
+    @Autowired
+    public ContractEventBroadcaster(ContractRepository contractRepository,
+                                    @Value("${app.sse.buffer-size:256}") int bufferSize,
+                                    @Value("${app.sse.timeout:30m}") Duration timeout,
+                                    @Value("${app.sse.sender-threads:16}") int senderThreads,
+                                    Environment environment) {
+        this(contractRepository, bufferSize, timeout,
+                Executors.newSingleThreadExecutor(daemonThreads("sse-dispatch")),
+                Threading.VIRTUAL.isActive(environment) ? virtualSenders() : platformSenders(senderThreads));
+    }
+
+    ContractEventBroadcaster(ContractRepository contractRepository, int bufferSize, Duration timeout,
+                             Executor dispatcher, Executor senders) {
+        this.contractRepository = contractRepository;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.dispatcher = dispatcher;
+        this.senders = senders;
+    }
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @param clientId only push the contracts of this client, or null for all contracts
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(Long clientId) {
+        return subscribe(clientId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Long clientId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(clientId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        if (clientId == null) {
+            allSubscribers.add(subscriber);
+        } else {
+            clientSubscribers.computeIfAbsent(clientId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Receives a contract change in the modifying transaction and pushes it once
+     * the transaction has committed (immediately when published outside a transaction).
+     * The contracts of modified clients are read just before commit, after all the
+     * writes of the transaction, so the pushed deltas are the committed state rather
+     * than whatever the database holds when the delta is dispatched.
+     * Nothing is read or queued when nobody listens to the affected clients.
+     *
+     * @param event the published change
+     */
+    @EventListener
+    public void onContractsChanged(ContractsChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (hasSubscribers(event)) {
+                enqueue(snapshot(event));
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private List<ContractDelta> deltas = List.of();
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (hasSubscribers(event)) {
+                    deltas = snapshot(event);
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                enqueue(deltas);
+            }
+        });
+    }
+
+    private List<ContractDelta> snapshot(ContractsChangedEvent event) {
+        if (event.delta() != null) {
+            return List.of(event.delta());
+        }
+        List<Long> clientIds = event.clientIds().stream().filter(this::hasSubscribers).toList();
+        List<ContractDelta> deltas = new ArrayList<>();
+        for (int from = 0; from < clientIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            deltas.addAll(contractRepository.findDeltasByClients(
+                    clientIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, clientIds.size()))));
+        }
+        return deltas;
+    }
+
+    private void enqueue(List<ContractDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> deltas.forEach(this::publish));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    private boolean hasSubscribers(ContractsChangedEvent event) {
+        return event.clientIds().stream().anyMatch(this::hasSubscribers);
+    }
+
+    private boolean hasSubscribers(Long clientId) {
+        return !allSubscribers.isEmpty() || clientSubscribers.containsKey(clientId);
+    }
+
+    private void publish(ContractDelta delta) {
+        allSubscribers.forEach(subscriber -> offer(subscriber, delta));
+        Set<Subscriber> subscribers = clientSubscribers.get(delta.clientId());
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> offer(subscriber, delta));
+        }
+    }
+
+    /**
+     * Queues a delta for a subscriber and makes sure a sender task is running.
+     * Never blocks: a full buffer means the subscriber cannot keep up, so it is
+     * disconnected (and can reconnect, then resynchronise through the regular endpoints).
+     */
+    private void offer(Subscriber subscriber, ContractDelta delta) {
+        if (!subscriber.buffer.offer(delta)) {
+            log.info("Disconnecting slow SSE subscriber (client filter: {}): {} events pending",
+                    subscriber.clientId, bufferSize);
+            remove(subscriber);
+            subscriber.buffer.clear();
+            subscriber.emitter.complete();
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+
+    /**
+     * Sends the buffered deltas of a subscriber until its buffer is empty.
+     * At most one sender task runs per subscriber, so deltas are sent in dispatch order.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            ContractDelta delta;
+            while ((delta = subscriber.buffer.poll()) != null) {
+                try {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(CONTRACT_EVENT)
+                            .data(delta, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // Connection closed or emitter already completed
+                    remove(subscriber);
+                    subscriber.buffer.clear();
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+            // A delta may have been queued after the last poll, before the flag was reset
+        } while (!subscriber.buffer.isEmpty() && subscriber.sending.compareAndSet(false, true));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.clientId == null) {
+            allSubscribers.remove(subscriber);
+        } else {
+            clientSubscribers.computeIfPresent(subscriber.clientId, (id, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    /**
+     * Closes all subscriptions and stops the dispatch and sender tasks.
+     */
+    @PreDestroy
+    public void shutdown() {
+        shutdown(dispatcher);
+        shutdown(senders);
+        allSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+        clientSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private static void shutdown(Executor executor) {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        } else if (executor instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("Could not close SSE executor", e);
+            }
+        }
+    }
+
+    private static Executor platformSenders(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("sse-send"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static Executor virtualSenders() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sse-send-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** One SSE connection, with its pending deltas and the flag of its sender task. */
+    private static final class Subscriber {
+        private final Long clientId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ContractDelta> buffer;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(Long clientId, SseEmitter emitter, BlockingQueue<ContractDelta> buffer) {
+            this.clientId = clientId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * =============================================================
+ *  File: ContractsChangedEvent.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Application event published by the services when
+ *               contracts change: either the new state of one contract,
+ *               or the clients whose contracts must be read again before
+ *               commit (client renamed, client deleted and contracts closed).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.events;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractDelta;
+
+import java.util.Collection;
+import java.util.List;
+
+public record ContractsChangedEvent(
+        ContractDelta delta,
+        List<Long> clientIds
+) {
+    /**
+     * Builds the event of a single created or updated contract.
+     *
+     * @param delta the new state of the contract
+     * @return the event
+     */
+    public static ContractsChangedEvent of(ContractDelta delta) {
+        return new ContractsChangedEvent(delta, List.of(delta.clientId()));
+    }
+
+    /**
+     * Builds the event of clients whose contracts all changed.
+     * Their contracts are only read if someone subscribed to these clients.
+     *
+     * @param clientIds the IDs of the modified clients
+     * @return the event
+     */
+    public static ContractsChangedEvent ofClients(Collection<Long> clientIds) {
+        return new ContractsChangedEvent(null, List.copyOf(clientIds));
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * =============================================================
+ *  File: DatabaseIdempotencyStore.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Idempotency store persisted in the idempotency_record
+ *               table, shared by all nodes. Keys are claimed by inserting
+ *               their primary key; expired records are purged periodically.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.idempotency;
+
+import ch.vaudoise.exercice.api_factory.repository.IdempotencyRecordRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration lease;
+
+    /**
+     * @param repository the record repository
+     * @param ttl        how long a key is remembered
+     * @param lease      how long a key stays claimed without a recorded response
+     *                   (longer than the slowest request)
+     */
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository, Duration ttl, Duration lease) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    /**
+     * Claims the key with a single INSERT; the primary key rejects a concurrent claim,
+     * in which case the recorded entry is read back. An entry still in progress after
+     * its lease (node stopped before completing or releasing it) is reclaimed.
+     */
+    @Override
+    public StoredResponse claim(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.deleteIfExpired(key, now.minus(ttl), now.minus(lease));
+        try {
+            repository.insertInProgress(key, fingerprint, now);
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            return repository.findById(key)
+                    .map(record -> new StoredResponse(record.getFingerprint(), record.getStatus(), record.getBody()))
+                    // Released in the meantime: report it as in progress, the caller retries later
+                    .orElse(StoredResponse.inProgress(fingerprint));
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        repository.complete(key, response.status(), response.body());
+    }
+
+    @Override
+    public void release(String key) {
+        repository.release(key);
+    }
+
+    /**
+     * Deletes the expired records (runs when scheduling is enabled).
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        repository.deleteExpired(LocalDateTime.now().minus(ttl));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * =============================================================
+ *  File: IdempotencyService.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Applies the Idempotency-Key header to creation endpoints:
+ *               the first request with a key is processed and its response
+ *               recorded; retries with the same key get the recorded response
+ *               back instead of creating a duplicate.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+
+    /** Request header carrying the client-generated key. */
+    public static final String HEADER = "Idempotency-Key";
+
+    /** Response header set on replayed responses. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /** Maximum length of a key (UUIDs and similar tokens are far shorter). */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyService(IdempotencyStore store, ObjectMapper objectMapper) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Processes a request at most once per key.
+     * - Without key, the action is simply run.
+     * - On the first request with a key, the action is run; a 2xx response is recorded,
+     *   any other outcome releases the key so that the request can be retried.
+     * - On a retry with the same key and body, the recorded response is returned
+     *   (with the Idempotent-Replayed header), without running the action.
+     * - A retry while the first request is still running gets 409; a key reused
+     *   with another body gets 422; an invalid key gets 400.
+     *
+     * @param key      the Idempotency-Key header value, or null
+     * @param scope    identifies the endpoint (keys are scoped per endpoint)
+     * @param request  the request body, hashed to detect a reused key
+     * @param bodyType the type of the response body, used to read a recorded response back
+     * @param action   processes the request
+     * @param <T>      the response body type
+     * @return the response of the action, or the recorded one
+     */
+    public <T> ResponseEntity<T> execute(String key, String scope, Object request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String storeKey = scope + " " + key;
+        String fingerprint = fingerprint(request);
+        StoredResponse recorded = store.claim(storeKey, fingerprint);
+        if (recorded != null) {
+            if (!recorded.fingerprint().equals(fingerprint)) {
+                return ResponseEntity.unprocessableEntity().build();
+            }
+            if (recorded.isInProgress()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return replay(recorded, bodyType);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            store.release(storeKey);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            store.complete(storeKey, new StoredResponse(fingerprint, response.getStatusCode().value(), write(response.getBody())));
+        } else {
+            store.release(storeKey);
+        }
+        return response;
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse recorded, Class<T> bodyType) {
+        try {
+            T body = recorded.body() == null ? null : objectMapper.readValue(recorded.body(), bodyType);
+            return ResponseEntity.status(recorded.status()).header(REPLAYED_HEADER, "true").body(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String write(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hashes the JSON form of the request body (SHA-256).
+     */
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * =============================================================
+ *  File: IdempotencyStore.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Storage of the responses recorded for Idempotency-Key
+ *               headers (in memory, or in the database for multi-node).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.idempotency;
+
+public interface IdempotencyStore {
+
+    /**
+     * Atomically claims a key for a new request.
+     *
+     * @param key         the key (endpoint and header value)
+     * @param fingerprint the hash of the request body
+     * @return null if the key was claimed by this call, otherwise the entry already recorded
+     *         (in progress or completed)
+     */
+    StoredResponse claim(String key, String fingerprint);
+
+    /**
+     * Records the response of a claimed key.
+     *
+     * @param key      the claimed key
+     * @param response the response to replay on retries
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Forgets a claimed key, so that a retry is processed again (e.g. after a failure).
+     *
+     * @param key the claimed key
+     */
+    void release(String key);
+}
@@ -0,0 +1,46 @@
+/**
+ * =============================================================
+ *  File: InMemoryIdempotencyStore.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Idempotency store kept in a bounded Caffeine cache,
+ *               entries expiring after a fixed time. Local to the node.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, StoredResponse> responses;
+
+    /**
+     * @param ttl        how long a key is remembered
+     * @param maxEntries maximum number of remembered keys (least recently used are evicted first)
+     */
+    public InMemoryIdempotencyStore(Duration ttl, long maxEntries) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    @Override
+    public StoredResponse claim(String key, String fingerprint) {
+        return responses.asMap().putIfAbsent(key, StoredResponse.inProgress(fingerprint));
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        responses.put(key, response);
+    }
+
+    @Override
+    public void release(String key) {
+        responses.invalidate(key);
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * =============================================================
+ *  File: StoredResponse.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Response recorded for an Idempotency-Key: the request
+ *               fingerprint, the HTTP status (0 while in progress) and
+ *               the JSON body.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.idempotency;
+
+public record StoredResponse(
+        String fingerprint,
+        int status,
+        String body
+) {
+    /**
+     * Builds the placeholder of a request still being processed.
+     *
+     * @param fingerprint the hash of the request body
+     * @return the in-progress entry
+     */
+    public static StoredResponse inProgress(String fingerprint) {
+        return new StoredResponse(fingerprint, 0, null);
+    }
+
+    public boolean isInProgress() {
+        return status == 0;
+    }
+}
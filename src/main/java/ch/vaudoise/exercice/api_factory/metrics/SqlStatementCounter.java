@@ -0,0 +1,47 @@
+/**
+ * =============================================================
+ *  File: SqlStatementCounter.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Hibernate statement inspector counting the SQL statements
+ *               prepared by the current thread. Used to report the number
+ *               of statements executed per HTTP request.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Called by Hibernate for every statement it prepares; counts it and
+     * returns the SQL unchanged.
+     *
+     * @param sql the SQL statement
+     * @return the same SQL statement
+     */
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Resets the counter of the current thread (at the start of a request).
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Returns the number of statements prepared by the current thread since the last reset.
+     *
+     * @return the statement count
+     */
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -10,10 +10,21 @@
 package ch.vaudoise.exercice.api_factory.repository;
 
 import ch.vaudoise.exercice.api_factory.entity.Client;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
@@ -27,9 +38,139 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     boolean existsByEmailAndActiveTrue(String email);
 
     /**
-     * Retrieves all clients currently marked as active (not soft-deleted).
+     * Retrieves one page of active clients using keyset pagination on the ID.
+     * Only rows strictly after the given cursor are read (no OFFSET scan).
      *
-     * @return list of active clients
+     * @param afterId the ID of the last client of the previous page (0 for the first page)
+     * @param limit   the maximum number of clients to return
+     * @return active clients ordered by ID
      */
-    List<Client> findByActiveTrue();
+    @Query("SELECT c FROM Client c WHERE c.active = true AND c.id > :afterId ORDER BY c.id")
+    List<Client> findActivePageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Streams all active clients ordered by ID over a forward-only database cursor.
+     * Rows are fetched from the driver in chunks instead of being buffered in memory.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @return a stream of active clients (read-only entities)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Client c WHERE c.active = true ORDER BY c.id")
+    Stream<Client> streamActive();
+
+    /**
+     * Retrieves the clients (active or soft-deleted) modified after a change feed position,
+     * oldest first, up to an upper bound. Keyset pagination on (updateDate, id), like
+     * ContractRepository.findChangesAfter.
+     *
+     * @param since   the update timestamp of the last client read
+     * @param afterId the ID of the last client read
+     * @param until   the exclusive upper bound of the update timestamps
+     * @param limit   the maximum number of clients to return
+     * @return clients ordered by update timestamp then ID
+     */
+    @Query("""
+        SELECT c FROM Client c
+        WHERE (c.updateDate > :since OR (c.updateDate = :since AND c.id > :afterId))
+        AND c.updateDate < :until
+        ORDER BY c.updateDate, c.id
+    """)
+    List<Client> findChangesAfter(@Param("since") LocalDateTime since,
+                                  @Param("afterId") Long afterId,
+                                  @Param("until") LocalDateTime until,
+                                  Limit limit);
+
+    /**
+     * Returns which of the given IDs belong to an existing client.
+     * Resolves a whole list of IDs in one query without loading the entities.
+     *
+     * @param ids the client IDs to check
+     * @return the subset of IDs that exist
+     */
+    @Query("SELECT c.id FROM Client c WHERE c.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns which of the given email addresses are already used by an active client.
+     * Checks a whole list of emails in one query.
+     *
+     * @param emails the email addresses to check
+     * @return the subset of emails already in use
+     */
+    @Query("SELECT c.email FROM Client c WHERE c.active = true AND c.email IN :emails")
+    Set<String> findActiveEmailsIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Soft deletes the given clients in a single UPDATE statement (active = false),
+     * refreshes their update timestamp and increments their version.
+     *
+     * @param ids the IDs of the clients to deactivate
+     * @param now the new update timestamp
+     * @return the number of clients that were active and are now deactivated
+     */
+    @Modifying
+    @Query("""
+        UPDATE Client c SET c.active = false, c.updateDate = :now, c.version = c.version + 1
+        WHERE c.id IN :ids AND c.active = true
+    """)
+    int deactivateAll(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Refreshes the update timestamp of the given clients in a single UPDATE statement,
+     * without changing their version (their own fields are unchanged). Used when their
+     * contract list changes without any contract being updated, e.g. when contracts are archived.
+     *
+     * @param ids the IDs of the clients
+     * @param now the new update timestamp
+     * @return the number of updated clients
+     */
+    @Modifying
+    @Query("UPDATE Client c SET c.updateDate = :now WHERE c.id IN :ids")
+    int touchAll(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Updates the contact fields of a client in a single UPDATE statement,
+     * refreshing its update timestamp and incrementing its version.
+     *
+     * @param id    the ID of the client
+     * @param name  new name
+     * @param email new email
+     * @param phone new phone number (already normalized)
+     * @param now   the new update timestamp
+     * @return 1 if the client was updated, 0 if it does not exist
+     */
+    @Modifying
+    @Query("""
+        UPDATE Client c SET c.name = :name, c.email = :email, c.phone = :phone,
+            c.updateDate = :now, c.version = c.version + 1
+        WHERE c.id = :id
+    """)
+    int updateContactFields(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
+                            @Param("phone") String phone, @Param("now") LocalDateTime now);
+
+    /**
+     * Same as updateContactFields, only applied if the client still has the expected version
+     * (compare-and-set: concurrent writers never overwrite each other, and no lock is taken).
+     *
+     * @param id      the ID of the client
+     * @param version the version the caller based its changes on
+     * @param name    new name
+     * @param email   new email
+     * @param phone   new phone number (already normalized)
+     * @param now     the new update timestamp
+     * @return 1 if the client was updated, 0 if it does not exist or its version changed
+     */
+    @Modifying
+    @Query("""
+        UPDATE Client c SET c.name = :name, c.email = :email, c.phone = :phone,
+            c.updateDate = :now, c.version = c.version + 1
+        WHERE c.id = :id AND c.version = :version
+    """)
+    int updateContactFieldsIfVersion(@Param("id") Long id, @Param("version") Long version,
+                                     @Param("name") String name, @Param("email") String email,
+                                     @Param("phone") String phone, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,53 @@
+/**
+ * =============================================================
+ *  File: ContractAmountRepository.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: JDBC repository writing explicit contract amounts in
+ *               batches, one UPDATE per contract sent in a single
+ *               round-trip (JPQL bulk updates cannot be batched).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.repository;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractAmount;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class ContractAmountRepository {
+
+    private static final String UPDATE_AMOUNT = "UPDATE contract SET cost_amount = ?, update_date = ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ContractAmountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the cost amount of the given contracts and refreshes their update timestamp and version,
+     * as one JDBC batch. Joins the current transaction, if any.
+     *
+     * @param amounts the new amounts
+     * @param now     the new update timestamp
+     * @return the number of contracts found and updated
+     */
+    public int updateAmounts(List<ContractAmount> amounts, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_AMOUNT, amounts, amounts.size(), (statement, amount) -> {
+            statement.setDouble(1, amount.amount());
+            statement.setTimestamp(2, timestamp);
+            statement.setLong(3, amount.id());
+        })[0];
+        int updated = 0;
+        for (int count : counts) {
+            if (count > 0) updated += count;
+        }
+        return updated;
+    }
+}
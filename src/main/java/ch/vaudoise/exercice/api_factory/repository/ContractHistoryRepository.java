@@ -0,0 +1,56 @@
+/**
+ * =============================================================
+ *  File: ContractHistoryRepository.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Spring Data JPA repository for archived contracts.
+ *               Copies expired contracts into the history table and
+ *               reads them back as contract views.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.repository;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.entity.ContractHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContractHistoryRepository extends JpaRepository<ContractHistory, Long> {
+
+    /**
+     * Copies the given contracts into the history table in a single INSERT ... SELECT,
+     * without loading any entity. The contracts must then be deleted from Contract.
+     *
+     * @param ids the IDs of the contracts to archive
+     * @return the number of archived contracts
+     */
+    @Modifying
+    @Query("""
+        INSERT INTO ContractHistory (id, clientId, startDate, endDate, costAmount, updateDate, archivedAt)
+        SELECT c.id, c.client.id, c.startDate, c.endDate, c.costAmount, c.updateDate, LOCAL DATETIME
+        FROM Contract c
+        WHERE c.id IN :ids
+    """)
+    int copyFromContracts(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the views of the archived contracts of a specific client.
+     *
+     * @param clientId the ID of the client
+     * @return list of archived contract views for the client
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractView(
+            h.id, h.costAmount, h.startDate, h.endDate, cl.id, cl.name)
+        FROM ContractHistory h JOIN Client cl ON cl.id = h.clientId
+        WHERE h.clientId = :clientId
+    """)
+    List<ContractView> findContractViewsByClient(@Param("clientId") Long clientId);
+}
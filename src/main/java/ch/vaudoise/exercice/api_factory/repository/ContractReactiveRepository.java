@@ -0,0 +1,138 @@
+/**
+ * =============================================================
+ *  File: ContractReactiveRepository.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Non-blocking (R2DBC) read-only repository for contracts.
+ *               Queries the same tables as the JPA Contract/Client entities
+ *               and emits ContractView rows as they arrive from PostgreSQL.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.repository;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+@Repository
+public class ContractReactiveRepository implements DisposableBean {
+
+    /** Columns of ContractView, read from the contract table joined to its client. */
+    private static final String SELECT_VIEW = """
+        SELECT c.id, c.cost_amount, c.start_date, c.end_date, c.client_id, cl.name
+        FROM contract c JOIN client cl ON cl.id = c.client_id
+    """;
+
+    /** Number of rows requested from the server cursor at a time when streaming. */
+    private static final int FETCH_SIZE = 500;
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Creates the R2DBC connection pool (connections are opened lazily, on first use).
+     * The pool is deliberately not exposed as a ConnectionFactory bean, so that
+     * Spring Boot keeps configuring the JDBC DataSource used by JPA.
+     *
+     * @param url         R2DBC URL of the database
+     * @param username    database user
+     * @param password    database password
+     * @param maxPoolSize maximum number of R2DBC connections
+     */
+    public ContractReactiveRepository(@Value("${app.r2dbc.url}") String url,
+                                      @Value("${app.r2dbc.username}") String username,
+                                      @Value("${app.r2dbc.password}") String password,
+                                      @Value("${app.r2dbc.pool.max-size}") int maxPoolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options))
+                .maxSize(maxPoolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Emits the views of all active contracts for a specific client.
+     * A contract is considered active if its end date is in the future or not set.
+     *
+     * @param clientId the ID of the client
+     * @param date     the reference date (usually LocalDate.now())
+     * @return the active contract views
+     */
+    public Flux<ContractView> findActiveContractViewsByClient(Long clientId, LocalDate date) {
+        return databaseClient.sql(SELECT_VIEW + """
+                    WHERE c.client_id = :clientId
+                    AND (c.end_date IS NULL OR c.end_date > :date)
+                    ORDER BY c.id
+                """)
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .bind("clientId", clientId)
+                .bind("date", date)
+                .map(ContractReactiveRepository::toView)
+                .all();
+    }
+
+    /**
+     * Emits the views of all contracts (active and ended) for a specific client.
+     * Rows are pulled from a server-side cursor on demand, so a slow consumer
+     * only holds one batch of rows in memory.
+     *
+     * @param clientId the ID of the client
+     * @return all contract views of the client
+     */
+    public Flux<ContractView> findAllContractViewsByClient(Long clientId) {
+        return databaseClient.sql(SELECT_VIEW + """
+                    WHERE c.client_id = :clientId
+                    ORDER BY c.id
+                """)
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .bind("clientId", clientId)
+                .map(ContractReactiveRepository::toView)
+                .all();
+    }
+
+    /**
+     * Emits the views of all contracts ordered by ID, pulled from a server-side
+     * cursor on demand (backpressure propagates down to the database).
+     *
+     * @return all contract views
+     */
+    public Flux<ContractView> streamAll() {
+        return databaseClient.sql(SELECT_VIEW + " ORDER BY c.id")
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .map(ContractReactiveRepository::toView)
+                .all();
+    }
+
+    /**
+     * Closes the connection pool on application shutdown.
+     */
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+
+    private static ContractView toView(Readable row) {
+        return new ContractView(
+                row.get("id", Long.class),
+                row.get("cost_amount", Double.class),
+                row.get("start_date", LocalDate.class),
+                row.get("end_date", LocalDate.class),
+                row.get("client_id", Long.class),
+                row.get("name", String.class)
+        );
+    }
+}
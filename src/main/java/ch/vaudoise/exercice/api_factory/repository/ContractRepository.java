@@ -9,14 +9,28 @@
 
 package ch.vaudoise.exercice.api_factory.repository;
 
+import ch.vaudoise.exercice.api_factory.dto.ClientTotal;
+import ch.vaudoise.exercice.api_factory.dto.ContractChange;
+import ch.vaudoise.exercice.api_factory.dto.ContractDelta;
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.dto.ContractsVersion;
 import ch.vaudoise.exercice.api_factory.entity.Contract;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ContractRepository extends JpaRepository<Contract, Long> {
@@ -45,4 +59,413 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
      */
     @Query("SELECT c FROM Contract c WHERE c.client.id = :clientId")
     List<Contract> findAllContractsByClient(@Param("clientId") Long clientId);
+
+    /**
+     * Computes the total cost amount of all active contracts for a specific client.
+     * The sum is calculated by the database, so no contract row is transferred.
+     *
+     * @param clientId the ID of the client
+     * @param date     the reference date (usually LocalDate.now())
+     * @return the sum of active contract costs, 0 if the client has none
+     */
+    @Query("""
+        SELECT COALESCE(SUM(c.costAmount), 0) FROM Contract c
+        WHERE c.client.id = :clientId
+        AND (c.endDate IS NULL OR c.endDate > :date)
+    """)
+    Double sumActiveContractAmountsByClient(@Param("clientId") Long clientId,
+                                            @Param("date") LocalDate date);
+
+    /**
+     * Computes the active contract count and total of every client in a single GROUP BY,
+     * one page at a time (keyset pagination on the client ID).
+     * Uses the same active predicate as findActiveContractsByClient; clients without
+     * active contracts at the given date are not listed.
+     *
+     * @param afterId the client ID of the last row of the previous page (0 for the first page)
+     * @param date    the reference date of the active check
+     * @param limit   the maximum number of clients to return
+     * @return client totals ordered by client ID
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ClientTotal(
+            cl.id, cl.name, COUNT(c.id), SUM(c.costAmount))
+        FROM Contract c JOIN c.client cl
+        WHERE cl.id > :afterId
+        AND (c.endDate IS NULL OR c.endDate > :date)
+        GROUP BY cl.id, cl.name
+        ORDER BY cl.id
+    """)
+    List<ClientTotal> findActiveTotalsPageAfter(@Param("afterId") Long afterId,
+                                                @Param("date") LocalDate date,
+                                                Limit limit);
+
+    /**
+     * Same as findActiveTotalsPageAfter, restricted to the given clients.
+     *
+     * @param afterId   the client ID of the last row of the previous page (0 for the first page)
+     * @param clientIds the IDs of the clients to report on
+     * @param date      the reference date of the active check
+     * @param limit     the maximum number of clients to return
+     * @return client totals ordered by client ID
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ClientTotal(
+            cl.id, cl.name, COUNT(c.id), SUM(c.costAmount))
+        FROM Contract c JOIN c.client cl
+        WHERE cl.id > :afterId
+        AND cl.id IN :clientIds
+        AND (c.endDate IS NULL OR c.endDate > :date)
+        GROUP BY cl.id, cl.name
+        ORDER BY cl.id
+    """)
+    List<ClientTotal> findActiveTotalsPageAfterForClients(@Param("afterId") Long afterId,
+                                                          @Param("clientIds") Collection<Long> clientIds,
+                                                          @Param("date") LocalDate date,
+                                                          Limit limit);
+
+    /**
+     * Streams the active contract count and total of every client, computed by a single
+     * GROUP BY and read over a forward-only database cursor.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @param date the reference date of the active check
+     * @return a stream of client totals ordered by client ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ClientTotal(
+            cl.id, cl.name, COUNT(c.id), SUM(c.costAmount))
+        FROM Contract c JOIN c.client cl
+        WHERE c.endDate IS NULL OR c.endDate > :date
+        GROUP BY cl.id, cl.name
+        ORDER BY cl.id
+    """)
+    Stream<ClientTotal> streamActiveTotals(@Param("date") LocalDate date);
+
+    /**
+     * Retrieves the views of all active contracts for a specific client.
+     * Projects directly into ContractView in a single joined query, so no
+     * Contract entity is loaded and the client is never fetched lazily.
+     *
+     * @param clientId the ID of the client
+     * @param date     the reference date (usually LocalDate.now())
+     * @return list of active contract views for the client
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractView(
+            c.id, c.costAmount, c.startDate, c.endDate, cl.id, cl.name)
+        FROM Contract c JOIN c.client cl
+        WHERE cl.id = :clientId
+        AND (c.endDate IS NULL OR c.endDate > :date)
+    """)
+    List<ContractView> findActiveContractViewsByClient(@Param("clientId") Long clientId,
+                                                       @Param("date") LocalDate date);
+
+    /**
+     * Retrieves the views of active contracts for a client modified since a given instant.
+     *
+     * @param clientId the ID of the client
+     * @param date     the reference date for the active check (usually LocalDate.now())
+     * @param since    the lower bound (inclusive) of the update timestamp
+     * @return list of active contract views updated since the given instant
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractView(
+            c.id, c.costAmount, c.startDate, c.endDate, cl.id, cl.name)
+        FROM Contract c JOIN c.client cl
+        WHERE cl.id = :clientId
+        AND (c.endDate IS NULL OR c.endDate > :date)
+        AND c.updateDate >= :since
+    """)
+    List<ContractView> findActiveContractViewsUpdatedSince(@Param("clientId") Long clientId,
+                                                           @Param("date") LocalDate date,
+                                                           @Param("since") LocalDateTime since);
+
+    /**
+     * Retrieves the views of all contracts (active and ended) for a specific client.
+     *
+     * @param clientId the ID of the client
+     * @return list of all contract views for the client
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractView(
+            c.id, c.costAmount, c.startDate, c.endDate, cl.id, cl.name)
+        FROM Contract c JOIN c.client cl
+        WHERE cl.id = :clientId
+    """)
+    List<ContractView> findAllContractViewsByClient(@Param("clientId") Long clientId);
+
+    /**
+     * Summarizes the state of a client's contracts in a single aggregate query:
+     * the client's update timestamp, the latest contract update and the contract count.
+     * Used to answer conditional GET requests without loading the contracts.
+     *
+     * @param clientId the ID of the client
+     * @return the version summary, or empty if the client does not exist
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractsVersion(
+            cl.updateDate, MAX(c.updateDate), COUNT(c.id))
+        FROM Client cl LEFT JOIN cl.contracts c
+        WHERE cl.id = :clientId
+        GROUP BY cl.id, cl.updateDate
+    """)
+    Optional<ContractsVersion> findContractsVersion(@Param("clientId") Long clientId);
+
+    /**
+     * Retrieves one page of contract views using keyset pagination on the ID.
+     * Only rows strictly after the given cursor are read, so the cost of a page
+     * does not grow with its position in the table (no OFFSET scan).
+     *
+     * @param afterId the ID of the last contract of the previous page (0 for the first page)
+     * @param limit   the maximum number of contracts to return
+     * @return contract views ordered by ID
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractView(
+            c.id, c.costAmount, c.startDate, c.endDate, cl.id, cl.name)
+        FROM Contract c JOIN c.client cl
+        WHERE c.id > :afterId
+        ORDER BY c.id
+    """)
+    List<ContractView> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Streams the views of all contracts ordered by ID over a forward-only database cursor.
+     * Rows are fetched from the driver in chunks instead of being buffered in memory.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @return a stream of all contract views
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractView(
+            c.id, c.costAmount, c.startDate, c.endDate, cl.id, cl.name)
+        FROM Contract c JOIN c.client cl
+        ORDER BY c.id
+    """)
+    Stream<ContractView> streamAll();
+
+    /**
+     * Retrieves the contracts modified after a change feed position, oldest first.
+     * Keyset pagination on (updateDate, id): rows modified in the same instant are
+     * ordered by ID, so no change is skipped or repeated between pages.
+     * Only rows updated before the given bound are read: update timestamps are set
+     * before commit, so more recent rows may still be joined by slower transactions
+     * committing earlier timestamps.
+     *
+     * @param since   the update timestamp of the last contract read
+     * @param afterId the ID of the last contract read
+     * @param until   the exclusive upper bound of the update timestamps
+     * @param limit   the maximum number of contracts to return
+     * @return contract changes ordered by update timestamp then ID
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractChange(
+            c.id, c.costAmount, c.startDate, c.endDate, cl.id, cl.name, c.updateDate)
+        FROM Contract c JOIN c.client cl
+        WHERE (c.updateDate > :since OR (c.updateDate = :since AND c.id > :afterId))
+        AND c.updateDate < :until
+        ORDER BY c.updateDate, c.id
+    """)
+    List<ContractChange> findChangesAfter(@Param("since") LocalDateTime since,
+                                          @Param("afterId") Long afterId,
+                                          @Param("until") LocalDateTime until,
+                                          Limit limit);
+
+    /**
+     * Counts the contracts active at the given date.
+     *
+     * @param date the reference date of the active check
+     * @return the number of active contracts
+     */
+    @Query("SELECT COUNT(c) FROM Contract c WHERE c.endDate IS NULL OR c.endDate > :date")
+    long countActive(@Param("date") LocalDate date);
+
+    /**
+     * Counts the contracts of the given clients active at the given date.
+     *
+     * @param clientIds the IDs of the clients
+     * @param date      the reference date of the active check
+     * @return the number of active contracts
+     */
+    @Query("""
+        SELECT COUNT(c) FROM Contract c
+        WHERE c.client.id IN :clientIds
+        AND (c.endDate IS NULL OR c.endDate > :date)
+    """)
+    long countActiveForClients(@Param("clientIds") Collection<Long> clientIds,
+                               @Param("date") LocalDate date);
+
+    /**
+     * Retrieves the IDs of the next contracts active at the given date,
+     * using keyset pagination on the ID. Used to split bulk updates into chunks.
+     *
+     * @param afterId the last ID of the previous chunk (0 for the first chunk)
+     * @param date    the reference date of the active check
+     * @param limit   the maximum number of IDs to return
+     * @return contract IDs in ascending order
+     */
+    @Query("""
+        SELECT c.id FROM Contract c
+        WHERE c.id > :afterId
+        AND (c.endDate IS NULL OR c.endDate > :date)
+        ORDER BY c.id
+    """)
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId,
+                                  @Param("date") LocalDate date,
+                                  Limit limit);
+
+    /**
+     * Same as findActiveIdsAfter, restricted to the given clients.
+     *
+     * @param afterId   the last ID of the previous chunk (0 for the first chunk)
+     * @param clientIds the IDs of the clients
+     * @param date      the reference date of the active check
+     * @param limit     the maximum number of IDs to return
+     * @return contract IDs in ascending order
+     */
+    @Query("""
+        SELECT c.id FROM Contract c
+        WHERE c.id > :afterId
+        AND c.client.id IN :clientIds
+        AND (c.endDate IS NULL OR c.endDate > :date)
+        ORDER BY c.id
+    """)
+    List<Long> findActiveIdsAfterForClients(@Param("afterId") Long afterId,
+                                            @Param("clientIds") Collection<Long> clientIds,
+                                            @Param("date") LocalDate date,
+                                            Limit limit);
+
+    /**
+     * Multiplies the cost amount of the given contracts by a factor (rounded to cents)
+     * and refreshes their update timestamp and version, in a single UPDATE statement.
+     *
+     * @param ids    the IDs of the contracts to reprice
+     * @param factor the multiplier (e.g. 1.025 for +2.5%)
+     * @param now    the new update timestamp
+     * @return the number of updated contracts
+     */
+    @Modifying
+    @Query("""
+        UPDATE Contract c SET c.costAmount = ROUND(c.costAmount * :factor, 2), c.updateDate = :now,
+            c.version = c.version + 1
+        WHERE c.id IN :ids
+    """)
+    int scaleAmounts(@Param("ids") Collection<Long> ids,
+                     @Param("factor") double factor,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Retrieves the IDs of contracts that ended before the given date (any order).
+     * Used to archive expired contracts in chunks: archived rows are deleted,
+     * so each call returns the next chunk.
+     *
+     * @param cutoff contracts ending strictly before this date are returned
+     * @param limit  the maximum number of IDs to return
+     * @return contract IDs
+     */
+    @Query("SELECT c.id FROM Contract c WHERE c.endDate < :cutoff")
+    List<Long> findIdsEndedBefore(@Param("cutoff") LocalDate cutoff, Limit limit);
+
+    /**
+     * Retrieves the distinct clients of the given contracts.
+     *
+     * @param ids the IDs of the contracts
+     * @return the IDs of their clients
+     */
+    @Query("SELECT DISTINCT c.client.id FROM Contract c WHERE c.id IN :ids")
+    List<Long> findClientIdsOf(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the given contracts in a single DELETE statement.
+     * Only used once the contracts have been copied to the history table.
+     *
+     * @param ids the IDs of the contracts to delete
+     * @return the number of deleted contracts
+     */
+    @Modifying
+    @Query("DELETE FROM Contract c WHERE c.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the current state of all contracts of the given clients, with the
+     * versions of the contracts and clients. Used to capture the contracts of modified
+     * clients inside the modifying transaction, before it commits.
+     *
+     * @param clientIds the IDs of the clients
+     * @return the contract deltas ordered by ID
+     */
+    @Query("""
+        SELECT new ch.vaudoise.exercice.api_factory.dto.ContractDelta(
+            c.id, c.costAmount, c.startDate, c.endDate, cl.id, cl.name, c.version, cl.version)
+        FROM Contract c JOIN c.client cl
+        WHERE cl.id IN :clientIds
+        ORDER BY c.id
+    """)
+    List<ContractDelta> findDeltasByClients(@Param("clientIds") Collection<Long> clientIds);
+
+    /**
+     * Retrieves a contract with its client in a single joined query.
+     *
+     * @param id the ID of the contract
+     * @return the contract, or empty if not found
+     */
+    @Query("SELECT c FROM Contract c JOIN FETCH c.client WHERE c.id = :id")
+    Optional<Contract> findWithClientById(@Param("id") Long id);
+
+    /**
+     * Sets the cost amount of a contract in a single UPDATE statement,
+     * refreshing its update timestamp and incrementing its version.
+     *
+     * @param id     the ID of the contract
+     * @param amount the new cost amount
+     * @param now    the new update timestamp
+     * @return 1 if the contract was updated, 0 if it does not exist
+     */
+    @Modifying
+    @Query("""
+        UPDATE Contract c SET c.costAmount = :amount, c.updateDate = :now, c.version = c.version + 1
+        WHERE c.id = :id
+    """)
+    int updateAmount(@Param("id") Long id, @Param("amount") Double amount, @Param("now") LocalDateTime now);
+
+    /**
+     * Same as updateAmount, only applied if the contract still has the expected version
+     * (compare-and-set: concurrent writers never overwrite each other, and no lock is taken).
+     *
+     * @param id      the ID of the contract
+     * @param version the version the caller based its change on
+     * @param amount  the new cost amount
+     * @param now     the new update timestamp
+     * @return 1 if the contract was updated, 0 if it does not exist or its version changed
+     */
+    @Modifying
+    @Query("""
+        UPDATE Contract c SET c.costAmount = :amount, c.updateDate = :now, c.version = c.version + 1
+        WHERE c.id = :id AND c.version = :version
+    """)
+    int updateAmountIfVersion(@Param("id") Long id, @Param("version") Long version,
+                              @Param("amount") Double amount, @Param("now") LocalDateTime now);
+
+    /**
+     * Closes all active contracts of the given clients in a single UPDATE statement.
+     * Sets their end date to the given date and refreshes their update timestamp and version,
+     * without loading any entity.
+     *
+     * @param clientIds the IDs of the clients whose contracts are closed
+     * @param date      the closing date (usually LocalDate.now())
+     * @param now       the new update timestamp
+     * @return the number of closed contracts
+     */
+    @Modifying
+    @Query("""
+        UPDATE Contract c SET c.endDate = :date, c.updateDate = :now, c.version = c.version + 1
+        WHERE c.client.id IN :clientIds
+        AND (c.endDate IS NULL OR c.endDate > :date)
+    """)
+    int closeActiveContractsOfClients(@Param("clientIds") Collection<Long> clientIds,
+                                      @Param("date") LocalDate date,
+                                      @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,102 @@
+/**
+ * =============================================================
+ *  File: IdempotencyRecordRepository.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Spring Data JPA repository for recorded idempotent responses.
+ *               Each write runs in its own short transaction, so that a
+ *               concurrent claim of the same key fails on the primary key.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.repository;
+
+import ch.vaudoise.exercice.api_factory.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claims a key by inserting an in-progress record (status 0).
+     *
+     * @param key         the key to claim
+     * @param fingerprint the hash of the request body
+     * @param now         the claim time
+     * @return 1 if the key was claimed
+     * @throws org.springframework.dao.DataIntegrityViolationException if the key is already recorded
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        INSERT INTO IdempotencyRecord (idempotencyKey, fingerprint, status, createdAt)
+        VALUES (:key, :fingerprint, 0, :now)
+    """)
+    int insertInProgress(@Param("key") String key, @Param("fingerprint") String fingerprint,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * Records the response of a claimed key, unless a response was already recorded
+     * (by a retry that reclaimed the key after its lease ran out).
+     *
+     * @param key    the claimed key
+     * @param status the HTTP status of the response
+     * @param body   the JSON body of the response
+     * @return 1 if the record was updated
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE IdempotencyRecord r SET r.status = :status, r.body = :body
+        WHERE r.idempotencyKey = :key AND r.status = 0
+    """)
+    int complete(@Param("key") String key, @Param("status") int status, @Param("body") String body);
+
+    /**
+     * Deletes a record, expired or not.
+     *
+     * @param key the key to release
+     * @return 1 if the record was deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    int release(@Param("key") String key);
+
+    /**
+     * Deletes a record if it expired, so that its key can be claimed again: either created
+     * before the cutoff, or still in progress (status 0) after its lease ran out, which
+     * means the node processing the request died or gave up without releasing the key.
+     *
+     * @param key         the key
+     * @param cutoff      records created before this time are expired
+     * @param leaseCutoff in-progress records created before this time are expired
+     * @return 1 if an expired record was deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        DELETE FROM IdempotencyRecord r
+        WHERE r.idempotencyKey = :key
+        AND (r.createdAt < :cutoff OR (r.status = 0 AND r.createdAt < :leaseCutoff))
+    """)
+    int deleteIfExpired(@Param("key") String key, @Param("cutoff") LocalDateTime cutoff,
+                        @Param("leaseCutoff") LocalDateTime leaseCutoff);
+
+    /**
+     * Deletes all records created before the cutoff in a single statement.
+     *
+     * @param cutoff records created before this time are deleted
+     * @return the number of deleted records
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,82 @@
+/**
+ * =============================================================
+ *  File: CachedClients.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Access to the shared client cache. The cache holds
+ *               detached copies of the clients, never the entities of a
+ *               persistence context, and every read returns a new copy,
+ *               so callers can neither share nor modify a cached client.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.config.CacheConfig;
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import org.hibernate.Hibernate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+final class CachedClients {
+
+    private final Cache cache;
+
+    /** The Caffeine cache behind the (transaction-aware) Spring cache, for atomic loads. */
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> clients;
+
+    @SuppressWarnings("unchecked")
+    CachedClients(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfig.CLIENTS_CACHE);
+        this.clients = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    }
+
+    /**
+     * Returns a copy of a cached client.
+     *
+     * @param id the ID of the client
+     * @return a new detached copy, or null if the client is not cached
+     */
+    Client get(Long id) {
+        Client cached = cache.get(id, Client.class);
+        return cached == null ? null : copy(cached);
+    }
+
+    /**
+     * Returns a copy of a cached client, or loads it and caches a copy of it.
+     * The load runs inside Caffeine's atomic computation of the entry: an eviction of the
+     * same client (after a writer commits) waits for the load, then removes its result.
+     * A row read before a concurrent commit is therefore never left in the cache.
+     *
+     * @param id     the ID of the client
+     * @param loader reads the client from the database (outside of a write transaction)
+     * @return the client, or empty if not found
+     */
+    Optional<Client> get(Long id, Function<Long, Optional<Client>> loader) {
+        Client cached = (Client) clients.get(id, key -> loader.apply(id).map(CachedClients::copy).orElse(null));
+        return Optional.ofNullable(cached).map(CachedClients::copy);
+    }
+
+    /**
+     * Removes a client from the cache (after commit when called inside a transaction).
+     *
+     * @param id the ID of the client
+     */
+    void evict(Long id) {
+        cache.evict(id);
+    }
+
+    /**
+     * Copies the fields of a client (Person or Company) into a new detached instance.
+     * The lazy contract list is not copied.
+     */
+    private static Client copy(Client client) {
+        Client source = (Client) Hibernate.unproxy(client);
+        Client copy = BeanUtils.instantiateClass(source.getClass());
+        BeanUtils.copyProperties(source, copy, "contracts");
+        return copy;
+    }
+}
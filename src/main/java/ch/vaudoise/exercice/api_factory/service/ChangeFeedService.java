@@ -0,0 +1,102 @@
+/**
+ * =============================================================
+ *  File: ChangeFeedService.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Service layer serving the incremental change feed of
+ *               contracts and clients to downstream consumers.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.dto.ChangeCursor;
+import ch.vaudoise.exercice.api_factory.dto.ChangeEvent;
+import ch.vaudoise.exercice.api_factory.dto.ChangePage;
+import ch.vaudoise.exercice.api_factory.dto.ContractChange;
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Timed(value = "app.service", percentiles = {0.5, 0.99})
+public class ChangeFeedService {
+
+    /** Default number of changes returned per page. */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    /** Upper bound for the page size requested by API consumers. */
+    public static final int MAX_PAGE_SIZE = 5000;
+
+    private final ContractRepository contractRepository;
+    private final ClientRepository clientRepository;
+    private final Duration commitLag;
+
+    /**
+     * @param contractRepository used to read the modified contracts
+     * @param clientRepository   used to read the modified clients
+     * @param commitLag          age below which changes are not served yet; must exceed the
+     *                           longest write transaction (update timestamps are set before commit)
+     */
+    public ChangeFeedService(ContractRepository contractRepository, ClientRepository clientRepository,
+                             @Value("${app.changes.commit-lag:30s}") Duration commitLag) {
+        this.contractRepository = contractRepository;
+        this.clientRepository = clientRepository;
+        this.commitLag = commitLag;
+    }
+
+    /**
+     * Retrieves the contracts and clients modified since the given cursor, oldest first.
+     * Each entity type is read with one keyset query on its (updateDate, id) index;
+     * both results are merged by update timestamp and cut to the page size, and the
+     * cursor is advanced separately for each type up to the last change returned.
+     * Soft-deleted clients are returned as tombstones.
+     * Changes younger than the commit lag are held back: their update timestamp was
+     * set before commit, so a transaction still in flight may commit an older one,
+     * which a cursor already past it would never return.
+     *
+     * @param cursor the cursor returned by the previous call, or null to read from the beginning
+     * @param limit  the requested page size (clamped between 1 and MAX_PAGE_SIZE)
+     * @return the changes, the cursor to pass on the next call and whether more changes are pending
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public ChangePage getChanges(String cursor, int limit) {
+        ChangeCursor position = ChangeCursor.decode(cursor);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime until = LocalDateTime.now().minus(commitLag);
+
+        List<ContractChange> contracts = contractRepository.findChangesAfter(
+                position.contractUpdateDate(), position.contractId(), until, Limit.of(size + 1));
+        List<Client> clients = clientRepository.findChangesAfter(
+                position.clientUpdateDate(), position.clientId(), until, Limit.of(size + 1));
+
+        List<ChangeEvent> items = new ArrayList<>(Math.min(size, contracts.size() + clients.size()));
+        int i = 0;
+        int j = 0;
+        while (items.size() < size && (i < contracts.size() || j < clients.size())) {
+            boolean takeContract = j >= clients.size()
+                    || (i < contracts.size() && !contracts.get(i).updateDate().isAfter(clients.get(j).getUpdateDate()));
+            if (takeContract) {
+                ContractChange change = contracts.get(i++);
+                items.add(ChangeEvent.of(change));
+                position = position.withContract(change.updateDate(), change.id());
+            } else {
+                Client client = clients.get(j++);
+                items.add(ChangeEvent.of(client));
+                position = position.withClient(client.getUpdateDate(), client.getId());
+            }
+        }
+        boolean hasMore = i < contracts.size() || j < clients.size();
+        return new ChangePage(items, position.encode(), hasMore);
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * =============================================================
+ *  File: ChunkedImporter.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Helper shared by the bulk import services.
+ *               Reads items one by one from a Jackson iterator,
+ *               validates them and hands them over in fixed-size
+ *               chunks, collecting per-item errors (up to a
+ *               bounded number, the others are only counted).
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.dto.BatchImportError;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import jakarta.validation.ConstraintViolation;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+final class ChunkedImporter {
+
+    /** Maximum number of item errors returned; further rejections are only counted. */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private ChunkedImporter() {
+    }
+
+    /**
+     * Persists one chunk of valid items, typically in its own transaction.
+     *
+     * @param <T> the type of imported items
+     */
+    @FunctionalInterface
+    interface ChunkWriter<T> {
+
+        /**
+         * @param items   the valid items of the chunk
+         * @param indexes the position of each item in the original input
+         * @param errors  the list to append item-level rejections to
+         * @return the number of items persisted
+         */
+        int write(List<T> items, List<Integer> indexes, List<BatchImportError> errors);
+    }
+
+    /**
+     * Reads all items, validates them and writes them chunk by chunk.
+     * - Malformed or invalid items are reported with their index and skipped.
+     * - If the database rejects a chunk, all its items are reported as failed,
+     *   but the chunks already written are kept.
+     * Only one chunk is held in memory at a time, and at most MAX_REPORTED_ERRORS
+     * errors are kept: the response size stays bounded even if every item is rejected.
+     *
+     * @param items     the items to import, as read from the request body
+     * @param chunkSize the number of items written together
+     * @param validator returns a description of the violations of an item, or null if it is valid
+     * @param writer    persists a chunk of valid items
+     * @param <T>       the type of imported items
+     * @return the number of created items and the errors of rejected items
+     * @throws IOException if the request body cannot be read
+     */
+    static <T> BatchImportResult run(MappingIterator<T> items, int chunkSize,
+                                     Function<T, String> validator, ChunkWriter<T> writer) throws IOException {
+        Errors errors = new Errors();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        int created = 0;
+        int index = 0;
+
+        while (true) {
+            T item;
+            try {
+                if (!items.hasNextValue()) break;
+                item = items.nextValue();
+            } catch (JsonProcessingException e) {
+                errors.add(new BatchImportError(index++, "Malformed item: " + e.getOriginalMessage()));
+                // A syntax error leaves the parser in an unknown position: stop reading
+                if (e instanceof JsonParseException) break;
+                continue;
+            }
+
+            String violation = validator.apply(item);
+            if (violation != null) {
+                errors.add(new BatchImportError(index++, violation));
+                continue;
+            }
+
+            chunk.add(item);
+            indexes.add(index++);
+            if (chunk.size() == chunkSize) {
+                created += writeChunk(chunk, indexes, writer, errors);
+                chunk.clear();
+                indexes.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += writeChunk(chunk, indexes, writer, errors);
+        }
+        return BatchImportResult.of(created, errors.count, errors.reported);
+    }
+
+    /**
+     * Formats Bean Validation violations as a single message.
+     *
+     * @param violations the violations of one item
+     * @return the joined "property: message" pairs, or null if there are none
+     */
+    static <T> String describe(Set<ConstraintViolation<T>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static <T> int writeChunk(List<T> chunk, List<Integer> indexes, ChunkWriter<T> writer, Errors errors) {
+        List<BatchImportError> chunkErrors = new ArrayList<>();
+        try {
+            int created = writer.write(chunk, indexes, chunkErrors);
+            chunkErrors.forEach(errors::add);
+            return created;
+        } catch (DataAccessException | TransactionException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            indexes.forEach(i -> errors.add(new BatchImportError(i, "Chunk rejected by the database: " + cause)));
+            return 0;
+        }
+    }
+
+    /** The rejections of an import: all are counted, the first MAX_REPORTED_ERRORS are kept. */
+    private static final class Errors {
+        private final List<BatchImportError> reported = new ArrayList<>();
+        private int count;
+
+        void add(BatchImportError error) {
+            count++;
+            if (reported.size() < MAX_REPORTED_ERRORS) {
+                reported.add(error);
+            }
+        }
+    }
+}
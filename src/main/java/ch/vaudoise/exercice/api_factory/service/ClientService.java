@@ -10,46 +10,162 @@
 
 package ch.vaudoise.exercice.api_factory.service;
 
+import ch.vaudoise.exercice.api_factory.config.CacheConfig;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportError;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
+import ch.vaudoise.exercice.api_factory.dto.ClientPage;
 import ch.vaudoise.exercice.api_factory.entity.Client;
-import ch.vaudoise.exercice.api_factory.entity.Contract;
+import ch.vaudoise.exercice.api_factory.events.ContractsChangedEvent;
 import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
 import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import ch.vaudoise.exercice.api_factory.validation.ContactFields;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", percentiles = {0.5, 0.99})
 public class ClientService {
 
+    /** Default number of clients returned per page. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Upper bound for the page size requested by API consumers. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Number of imported clients persisted per transaction (multiple of the JDBC batch size). */
+    static final int IMPORT_CHUNK_SIZE = 500;
+
+    /** Maximum number of IDs bound in a single bulk UPDATE (keeps IN lists reasonable). */
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    /** Maximum number of IDs bound in a single multi-get query. */
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
     private final ClientRepository clientRepository;
     private final ContractRepository contractRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final CachedClients clientCache;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ClientService(ClientRepository clientRepository, ContractRepository contractRepository) {
+    public ClientService(ClientRepository clientRepository, ContractRepository contractRepository,
+                         Validator validator, TransactionTemplate transactionTemplate,
+                         CacheManager cacheManager, EntityManager entityManager,
+                         ApplicationEventPublisher eventPublisher) {
         this.clientRepository = clientRepository;
         this.contractRepository = contractRepository;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.clientCache = new CachedClients(cacheManager);
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Retrieves all active clients (not soft-deleted).
+     * Retrieves one page of active clients (not soft-deleted) ordered by ID.
+     * Uses keyset pagination: pass the cursor returned by the previous page.
      *
-     * @return list of active clients
+     * @param afterId the cursor of the previous page, or null for the first page
+     * @param limit   the requested page size (clamped between 1 and MAX_PAGE_SIZE)
+     * @return the page of clients and the cursor of the next page
      */
-    public List<Client> getAllClients() {
-        return clientRepository.findByActiveTrue();
+    @Transactional(readOnly = true)
+    public ClientPage getClientsPage(Long afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return ClientPage.of(clientRepository.findActivePageAfter(afterId == null ? 0L : afterId, Limit.of(size)), size);
+    }
+
+    /**
+     * Streams all active clients to the given consumer, one at a time.
+     * Rows are read from a database cursor and each client is detached from the
+     * persistence context once consumed, so memory usage stays flat regardless
+     * of the number of clients.
+     *
+     * @param sink the consumer receiving each client
+     */
+    @Transactional(readOnly = true)
+    public void streamActiveClients(Consumer<Client> sink) {
+        try (Stream<Client> clients = clientRepository.streamActive()) {
+            clients.forEach(client -> {
+                sink.accept(client);
+                entityManager.detach(client);
+            });
+        }
     }
 
     /**
      * Finds a client by its ID.
+     * Served from the client cache when possible, as a copy that the caller owns.
      *
      * @param id the ID of the client
      * @return an Optional containing the client if found
      */
     public Optional<Client> getClient(Long id) {
-        return clientRepository.findById(id);
+        return clientCache.get(id, clientRepository::findById);
+    }
+
+    /**
+     * Finds many clients by ID at once.
+     * Clients present in the client cache are served from it (as copies); the others
+     * are read with one IN query per chunk of IDs. They are not added to the cache:
+     * a bulk read cannot be ordered with the eviction of a concurrent update
+     * (see CachedClients.get), so it could cache a stale client.
+     *
+     * @param ids the IDs of the clients (unknown IDs are ignored)
+     * @return the found clients keyed by ID, in request order
+     */
+    public Map<Long, Client> getClients(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, Client> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            Client cached = clientCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, missing.size()));
+            for (Client client : clientRepository.findAllById(chunk)) {
+                found.put(client.getId(), client);
+            }
+        }
+
+        // Restore request order (cache hits and database results were collected separately)
+        Map<Long, Client> ordered = new LinkedHashMap<>();
+        for (Long id : distinct) {
+            Client client = found.get(id);
+            if (client != null) ordered.put(id, client);
+        }
+        return ordered;
     }
 
     /**
@@ -59,6 +175,7 @@ public class ClientService {
      * @return the saved client entity
      * @throws IllegalArgumentException if the email is already in use
      */
+    @CacheEvict(cacheNames = CacheConfig.CLIENTS_CACHE, key = "#client.id", condition = "#client.id != null")
     public Client saveClient(Client client) {
         if (clientRepository.existsByEmailAndActiveTrue(client.getEmail())) {
             throw new IllegalArgumentException("Email already in use: " + client.getEmail());
@@ -69,22 +186,60 @@ public class ClientService {
 
     /**
      * Updates an existing client’s basic information (name, email, phone).
+     * The write is a single UPDATE statement that increments the client's version;
+     * when an expected version is given it is only applied if the client still has
+     * that version, so concurrent writers cannot overwrite each other without locking.
+     * Subscribers of the client's contracts are notified after commit
+     * (contract views carry the client name).
      *
-     * @param id    the ID of the client to update
-     * @param name  new name
-     * @param email new email
-     * @param phone new phone number
+     * @param id              the ID of the client to update
+     * @param name            new name
+     * @param email           new email
+     * @param phone           new phone number
+     * @param expectedVersion the version the changes are based on, or null to update unconditionally
      * @return the updated client
+     * @throws OptimisticLockingFailureException if the client no longer has the expected version
      */
-    public Client updateClient(Long id, String name, String email, String phone) {
-        return clientRepository.findById(id)
-            .map(client -> {
-                client.setName(name);
-                client.setEmail(email);
-                client.setPhone(phone);
-                return clientRepository.save(client);
-            })
-            .orElseThrow(() -> new RuntimeException("Client not found"));
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CLIENTS_CACHE, key = "#id")
+    public Client updateClient(Long id, String name, String email, String phone, Long expectedVersion) {
+        String normalizedPhone = ContactFields.normalizePhone(phone);
+        LocalDateTime now = LocalDateTime.now();
+        int updated = expectedVersion == null
+                ? clientRepository.updateContactFields(id, name, email, normalizedPhone, now)
+                : clientRepository.updateContactFieldsIfVersion(id, expectedVersion, name, email, normalizedPhone, now);
+        if (updated == 0) {
+            if (!clientRepository.existsById(id)) {
+                throw new RuntimeException("Client not found");
+            }
+            throw new OptimisticLockingFailureException("Client " + id + " is no longer at version " + expectedVersion);
+        }
+        eventPublisher.publishEvent(ContractsChangedEvent.ofClients(List.of(id)));
+        return clientRepository.findById(id).orElseThrow(() -> new RuntimeException("Client not found"));
+    }
+
+    /**
+     * Restores a soft-deleted client (sets active = true).
+     * The client is read from the database rather than the cache,
+     * and its cache entry is evicted once the transaction commits.
+     *
+     * @param id the ID of the client to restore
+     * @return an Optional containing the restored client, empty if not found
+     * @throws IllegalArgumentException if the email is now used by another active client
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CLIENTS_CACHE, key = "#id")
+    public Optional<Client> restoreClient(Long id) {
+        return clientRepository.findById(id).map(client -> {
+            // If already active, return as is
+            if (client.isActive()) return client;
+
+            if (clientRepository.existsByEmailAndActiveTrue(client.getEmail())) {
+                throw new IllegalArgumentException("Email already in use: " + client.getEmail());
+            }
+            client.setActive(true);
+            return clientRepository.save(client);
+        });
     }
 
     /**
@@ -96,19 +251,88 @@ public class ClientService {
      */
     @Transactional
     public void deleteClient(Long id) {
-        clientRepository.findById(id).ifPresent(client -> {
-            // Close all active contracts
-            List<Contract> contracts = contractRepository.findAllContractsByClient(id);
-            contracts.forEach(contract -> {
-                if (contract.getEndDate() == null || contract.getEndDate().isAfter(LocalDate.now())) {
-                    contract.setEndDate(LocalDate.now());
-                }
-            });
-            contractRepository.saveAll(contracts);
+        deleteClients(List.of(id));
+    }
 
-            // Soft delete the client
-            client.setActive(false);
-            clientRepository.save(client);
+    /**
+     * Soft deletes several clients in one transaction.
+     * Contracts and clients are updated with set-based UPDATE statements
+     * (one pair per chunk of IDs), so no entity is loaded and the transaction
+     * stays short even for clients with thousands of contracts.
+     * Cache entries of the deleted clients are evicted after commit, and
+     * subscribers of their contracts are notified of the closed contracts.
+     *
+     * @param ids the IDs of the clients to delete (unknown IDs are ignored)
+     * @return the number of clients that were deactivated
+     */
+    @Transactional
+    public int deleteClients(List<Long> ids) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < distinct.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinct.size()));
+            contractRepository.closeActiveContractsOfClients(chunk, today, now);
+            deleted += clientRepository.deactivateAll(chunk, now);
+        }
+        distinct.forEach(clientCache::evict);
+        eventPublisher.publishEvent(ContractsChangedEvent.ofClients(distinct));
+        return deleted;
+    }
+
+    /**
+     * Imports a sequence of clients (persons or companies) in chunks.
+     * - Each client is checked against its Bean Validation constraints.
+     * - Email uniqueness is checked for a whole chunk with a single query,
+     *   including duplicates inside the imported data itself.
+     * - Each chunk is inserted in its own transaction using JDBC batching.
+     * Clients are read one at a time, so memory usage does not depend on the input size.
+     *
+     * @param items the clients to import, as read from the request body
+     * @param <T>   the client type (Person or Company)
+     * @return the number of created clients and the errors of rejected items
+     * @throws IOException if the request body cannot be read
+     */
+    public <T extends Client> BatchImportResult importClients(MappingIterator<T> items) throws IOException {
+        return ChunkedImporter.run(items, IMPORT_CHUNK_SIZE,
+                client -> ChunkedImporter.describe(validator.validate(client)),
+                this::importChunk);
+    }
+
+    /**
+     * Persists one chunk of valid clients in a single transaction.
+     * Clients whose email is already used by an active client (in the database
+     * or earlier in the same chunk) are reported and skipped.
+     * The persistence context is cleared once the chunk is written, so imported
+     * clients do not pile up in a request-scoped (open-in-view) EntityManager.
+     *
+     * @param chunk   the clients to persist
+     * @param indexes the position of each client in the original input
+     * @param errors  the error list to append to
+     * @return the number of clients persisted
+     */
+    private <T extends Client> int importChunk(List<T> chunk, List<Integer> indexes, List<BatchImportError> errors) {
+        Integer created = transactionTemplate.execute(status -> {
+            Set<String> emails = new HashSet<>();
+            chunk.forEach(client -> emails.add(client.getEmail()));
+            Set<String> taken = new HashSet<>(clientRepository.findActiveEmailsIn(emails));
+
+            List<Client> clients = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                T client = chunk.get(i);
+                if (!taken.add(client.getEmail())) {
+                    errors.add(new BatchImportError(indexes.get(i), "Email already in use: " + client.getEmail()));
+                    continue;
+                }
+                client.setActive(true);
+                clients.add(client);
+            }
+            clientRepository.saveAll(clients);
+            entityManager.flush();
+            entityManager.clear();
+            return clients.size();
         });
+        return created == null ? 0 : created;
     }
 }
@@ -0,0 +1,100 @@
+/**
+ * =============================================================
+ *  File: ContractArchiveService.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Scheduled job moving contracts ended for longer than
+ *               the retention period from the Contract table into the
+ *               ContractHistory table.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.config.CacheConfig;
+import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractHistoryRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ContractArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContractArchiveService.class);
+
+    /** Number of contracts moved per transaction. */
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ContractRepository contractRepository;
+    private final ContractHistoryRepository contractHistoryRepository;
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache clientCache;
+    private final long retentionDays;
+
+    /**
+     * @param retention how long ended contracts stay in the Contract table (whole days)
+     */
+    public ContractArchiveService(ContractRepository contractRepository,
+                                  ContractHistoryRepository contractHistoryRepository,
+                                  ClientRepository clientRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  CacheManager cacheManager,
+                                  @Value("${app.archive.retention:365d}") Duration retention) {
+        this.contractRepository = contractRepository;
+        this.contractHistoryRepository = contractHistoryRepository;
+        this.clientRepository = clientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clientCache = cacheManager.getCache(CacheConfig.CLIENTS_CACHE);
+        this.retentionDays = retention.toDays();
+    }
+
+    /**
+     * Archives the contracts that ended more than the retention period ago.
+     * Each chunk is copied to the history table and deleted from Contract in the
+     * same transaction (one INSERT ... SELECT and one DELETE), so a contract is
+     * always in exactly one of the two tables.
+     * The update timestamp of their clients is refreshed in the same transaction,
+     * so that the Last-Modified of the clients' contract lists moves forward
+     * (nothing else changes on a list that loses its archived contracts).
+     *
+     * @return the number of archived contracts
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}")
+    public int archiveExpiredContracts() {
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        int archived = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = contractRepository.findIdsEndedBefore(cutoff, Limit.of(CHUNK_SIZE));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<Long> clientIds = contractRepository.findClientIdsOf(ids);
+                contractHistoryRepository.copyFromContracts(ids);
+                int deleted = contractRepository.deleteAllByIds(ids);
+                clientRepository.touchAll(clientIds, LocalDateTime.now());
+                clientIds.forEach(clientCache::evict);
+                return deleted;
+            });
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+        }
+        log.info("Archived {} contracts ended before {}", archived, cutoff);
+        return archived;
+    }
+}
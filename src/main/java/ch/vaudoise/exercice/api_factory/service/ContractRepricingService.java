@@ -0,0 +1,245 @@
+/**
+ * =============================================================
+ *  File: ContractRepricingService.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Service layer running bulk contract repricing jobs
+ *               (e.g. annual premium indexation) in the background,
+ *               as chunked set-based UPDATEs with progress tracking.
+ *               Subscribers of the repriced contracts are notified
+ *               after each committed chunk.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractAmount;
+import ch.vaudoise.exercice.api_factory.dto.RepricingJobStatus;
+import ch.vaudoise.exercice.api_factory.dto.RepricingRequest;
+import ch.vaudoise.exercice.api_factory.events.ContractsChangedEvent;
+import ch.vaudoise.exercice.api_factory.repository.ContractAmountRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+public class ContractRepricingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContractRepricingService.class);
+
+    /** Number of contracts updated per transaction. */
+    private static final int CHUNK_SIZE = 1000;
+
+    /** Maximum number of client IDs accepted by a percentage rule (bound in IN lists). */
+    public static final int MAX_CLIENT_IDS = 1000;
+
+    private final ContractRepository contractRepository;
+    private final ContractAmountRepository contractAmountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Jobs by ID; finished jobs stay queryable for a day. */
+    private final Cache<String, Job> jobs = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    /** Runs the jobs one after the other, so that concurrent jobs never update the same rows. */
+    private final Executor executor;
+
+    @Autowired
+    public ContractRepricingService(ContractRepository contractRepository,
+                                    ContractAmountRepository contractAmountRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    ApplicationEventPublisher eventPublisher) {
+        this(contractRepository, contractAmountRepository, transactionTemplate, eventPublisher,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "contract-repricing");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    ContractRepricingService(ContractRepository contractRepository,
+                             ContractAmountRepository contractAmountRepository,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher, Executor executor) {
+        this.contractRepository = contractRepository;
+        this.contractAmountRepository = contractAmountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.executor = executor;
+    }
+
+    /**
+     * Validates a repricing request and queues it as a background job.
+     *
+     * @param request the explicit amounts or the percentage rule
+     * @return the initial status of the job
+     * @throws IllegalArgumentException if the request is invalid
+     */
+    public RepricingJobStatus submit(RepricingRequest request) {
+        boolean explicit = request.getAmounts() != null && !request.getAmounts().isEmpty();
+        boolean rule = request.getPercent() != null;
+        if (explicit == rule) {
+            throw new IllegalArgumentException("Provide either 'amounts' or 'percent'");
+        }
+
+        Job job;
+        if (explicit) {
+            List<ContractAmount> amounts = List.copyOf(request.getAmounts());
+            for (ContractAmount amount : amounts) {
+                if (amount == null || amount.id() == null || amount.amount() == null || amount.amount() <= 0) {
+                    throw new IllegalArgumentException("Each amount needs a contract id and a positive amount");
+                }
+            }
+            job = new Job(amounts.size());
+            jobs.put(job.id, job);
+            executor.execute(() -> run(job, () -> applyAmounts(job, amounts)));
+        } else {
+            double percent = request.getPercent();
+            if (percent <= -100) {
+                throw new IllegalArgumentException("percent must be greater than -100");
+            }
+            List<Long> clientIds = request.getClientIds() == null ? List.of()
+                    : request.getClientIds().stream().filter(Objects::nonNull).distinct().toList();
+            if (clientIds.size() > MAX_CLIENT_IDS) {
+                throw new IllegalArgumentException("At most " + MAX_CLIENT_IDS + " client ids per job");
+            }
+            job = new Job(-1);
+            jobs.put(job.id, job);
+            executor.execute(() -> run(job, () -> applyPercent(job, 1 + percent / 100, clientIds)));
+        }
+        return job.status();
+    }
+
+    /**
+     * Returns the progress of a job.
+     *
+     * @param id the ID of the job
+     * @return the job status, or empty if unknown or expired
+     */
+    public Optional<RepricingJobStatus> getJob(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id)).map(Job::status);
+    }
+
+    private void run(Job job, Runnable work) {
+        job.state = RepricingJobStatus.RUNNING;
+        try {
+            work.run();
+            job.state = RepricingJobStatus.COMPLETED;
+        } catch (RuntimeException e) {
+            log.error("Repricing job {} failed after {} contracts", job.id, job.processed, e);
+            job.error = e.getMessage();
+            job.state = RepricingJobStatus.FAILED;
+        }
+        job.finishedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Writes explicit amounts, one JDBC batch and one transaction per chunk.
+     * Unknown contract IDs are counted as processed but not updated.
+     */
+    private void applyAmounts(Job job, List<ContractAmount> amounts) {
+        for (int from = 0; from < amounts.size(); from += CHUNK_SIZE) {
+            List<ContractAmount> chunk = amounts.subList(from, Math.min(from + CHUNK_SIZE, amounts.size()));
+            Integer updated = transactionTemplate.execute(status -> {
+                int count = contractAmountRepository.updateAmounts(chunk, LocalDateTime.now());
+                publishChanges(chunk.stream().map(ContractAmount::id).toList());
+                return count;
+            });
+            job.processed += chunk.size();
+            job.updated += updated == null ? 0 : updated;
+        }
+    }
+
+    /**
+     * Multiplies the amounts of the contracts active today (of the given clients, or of all
+     * clients), walking their IDs in ascending order and updating one chunk per transaction
+     * with a single UPDATE statement.
+     */
+    private void applyPercent(Job job, double factor, List<Long> clientIds) {
+        LocalDate today = LocalDate.now();
+        job.total = clientIds.isEmpty()
+                ? contractRepository.countActive(today)
+                : contractRepository.countActiveForClients(clientIds, today);
+
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = clientIds.isEmpty()
+                    ? contractRepository.findActiveIdsAfter(afterId, today, Limit.of(CHUNK_SIZE))
+                    : contractRepository.findActiveIdsAfterForClients(afterId, clientIds, today, Limit.of(CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer updated = transactionTemplate.execute(status -> {
+                int count = contractRepository.scaleAmounts(ids, factor, LocalDateTime.now());
+                publishChanges(ids);
+                return count;
+            });
+            job.processed += ids.size();
+            job.updated += updated == null ? 0 : updated;
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * Notifies the subscribers of the clients owning the given contracts, once the
+     * chunk transaction commits. The amounts are written without loading the contracts,
+     * so the broadcaster reads the contracts of the subscribed clients before commit.
+     */
+    private void publishChanges(List<Long> contractIds) {
+        List<Long> clientIds = contractRepository.findClientIdsOf(contractIds);
+        if (!clientIds.isEmpty()) {
+            eventPublisher.publishEvent(ContractsChangedEvent.ofClients(clientIds));
+        }
+    }
+
+    /**
+     * Discards the queued jobs on shutdown (chunks already committed stay applied).
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /** Mutable progress of a job, written by the job thread only. */
+    private static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String state = RepricingJobStatus.QUEUED;
+        private volatile long total;
+        private volatile long processed;
+        private volatile long updated;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(long total) {
+            this.total = total;
+        }
+
+        private RepricingJobStatus status() {
+            return new RepricingJobStatus(id, state, total, processed, updated, error, createdAt, finishedAt);
+        }
+    }
+}
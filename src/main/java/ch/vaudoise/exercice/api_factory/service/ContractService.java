@@ -9,29 +9,89 @@
 
 package ch.vaudoise.exercice.api_factory.service;
 
+import ch.vaudoise.exercice.api_factory.dto.BatchImportError;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
+import ch.vaudoise.exercice.api_factory.dto.ClientTotal;
+import ch.vaudoise.exercice.api_factory.dto.ContractDTO;
+import ch.vaudoise.exercice.api_factory.dto.ContractDelta;
+import ch.vaudoise.exercice.api_factory.dto.ContractPage;
 import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.dto.ContractsVersion;
+import ch.vaudoise.exercice.api_factory.dto.TotalsReportPage;
 import ch.vaudoise.exercice.api_factory.entity.Client;
 import ch.vaudoise.exercice.api_factory.entity.Contract;
+import ch.vaudoise.exercice.api_factory.events.ContractsChangedEvent;
 import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractHistoryRepository;
 import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", percentiles = {0.5, 0.99})
 public class ContractService {
 
+    /** Default number of contracts returned per page. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Upper bound for the page size requested by API consumers. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Number of imported contracts persisted per transaction (multiple of the JDBC batch size). */
+    static final int IMPORT_CHUNK_SIZE = 500;
+
+    /** Maximum number of client IDs bound in a single multi-get query. */
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
     private final ContractRepository contractRepository;
+    private final ContractHistoryRepository contractHistoryRepository;
     private final ClientRepository clientRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CachedClients clientCache;
+    private final EntityManager entityManager;
 
-    public ContractService(ContractRepository contractRepository, ClientRepository clientRepository) {
+    public ContractService(ContractRepository contractRepository, ContractHistoryRepository contractHistoryRepository,
+                           ClientRepository clientRepository, Validator validator,
+                           TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                           CacheManager cacheManager, EntityManager entityManager) {
         this.contractRepository = contractRepository;
+        this.contractHistoryRepository = contractHistoryRepository;
         this.clientRepository = clientRepository;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.clientCache = new CachedClients(cacheManager);
+        this.entityManager = entityManager;
     }
 
     /**
      * Saves a new contract, setting default start date if not provided.
+     * Subscribers of the client's contracts are notified after commit.
      *
      * @param contract the contract entity to save
      * @return the saved contract
@@ -40,7 +100,9 @@ public class ContractService {
         if (contract.getStartDate() == null) {
             contract.setStartDate(LocalDate.now());
         }
-        return contractRepository.save(contract);
+        Contract saved = contractRepository.save(contract);
+        eventPublisher.publishEvent(ContractsChangedEvent.of(ContractDelta.from(saved)));
+        return saved;
     }
 
     /**
@@ -48,82 +110,281 @@ public class ContractService {
      * A contract is considered active if endDate is in the future or null.
      *
      * @param clientId the client's ID
-     * @return list of active contracts
+     * @return list of active contract views
+     */
+    public List<ContractView> getActiveContractsForClient(Long clientId) {
+        return contractRepository.findActiveContractViewsByClient(clientId, LocalDate.now());
+    }
+
+    /**
+     * Retrieves active contracts for a given client that were modified after a given date
+     * (i.e. whose updateDate falls on a later day).
+     *
+     * @param clientId     the client's ID
+     * @param updatedAfter the cutoff date (exclusive)
+     * @return list of active contract views updated after the date
      */
-    public List<Contract> getActiveContractsForClient(Long clientId) {
-        return contractRepository.findActiveContractsByClient(clientId, LocalDate.now());
+    public List<ContractView> getActiveContractsUpdatedAfter(Long clientId, LocalDate updatedAfter) {
+        return contractRepository.findActiveContractViewsUpdatedSince(
+                clientId, LocalDate.now(), updatedAfter.plusDays(1).atStartOfDay());
     }
 
     /**
      * Retrieves all contracts (active and inactive) for a given client.
      *
      * @param clientId the client's ID
-     * @return list of all contracts
+     * @return list of all contract views
+     */
+    public List<ContractView> getAllContractsForClient(Long clientId) {
+        return contractRepository.findAllContractViewsByClient(clientId);
+    }
+
+    /**
+     * Retrieves all contracts for a given client, optionally including the
+     * archived ones (moved to the history table once expired for long enough).
+     *
+     * @param clientId        the client's ID
+     * @param includeArchived whether archived contracts are appended to the list
+     * @return list of all contract views
      */
-    public List<Contract> getAllContractsForClient(Long clientId) {
-        return contractRepository.findAllContractsByClient(clientId);
+    @Transactional(readOnly = true)
+    public List<ContractView> getAllContractsForClient(Long clientId, boolean includeArchived) {
+        List<ContractView> views = contractRepository.findAllContractViewsByClient(clientId);
+        if (!includeArchived) {
+            return views;
+        }
+        List<ContractView> all = new ArrayList<>(views);
+        all.addAll(contractHistoryRepository.findContractViewsByClient(clientId));
+        return all;
+    }
+
+    /**
+     * Returns a cheap summary of a client's contracts (latest update timestamps and count),
+     * allowing controllers to detect unchanged lists without loading them.
+     *
+     * @param clientId the client's ID
+     * @return the version summary, or empty if the client does not exist
+     */
+    public Optional<ContractsVersion> getContractsVersion(Long clientId) {
+        return contractRepository.findContractsVersion(clientId);
+    }
+
+    /**
+     * Retrieves a contract with its client.
+     *
+     * @param contractId the ID of the contract
+     * @return the contract, or empty if not found
+     */
+    @Transactional(readOnly = true)
+    public Optional<Contract> getContract(Long contractId) {
+        return contractRepository.findWithClientById(contractId);
     }
 
     /**
      * Updates the cost amount of a contract and refreshes its updateDate.
+     * The write is a single UPDATE statement that increments the contract's version;
+     * when an expected version is given it is only applied if the contract still has
+     * that version, so concurrent writers cannot overwrite each other without locking.
+     * Subscribers of the client's contracts are notified after commit.
      *
-     * @param contractId the ID of the contract to update
-     * @param newAmount  the new cost amount
-     * @return the updated contract
+     * @param contractId      the ID of the contract to update
+     * @param newAmount       the new cost amount
+     * @param expectedVersion the version the change is based on, or null to update unconditionally
+     * @return the updated contract, with its client
+     * @throws OptimisticLockingFailureException if the contract no longer has the expected version
      */
-    public Contract updateContractAmount(Long contractId, Double newAmount) {
-        return contractRepository.findById(contractId).map(contract -> {
-            contract.setCostAmount(newAmount);
-            contract.setUpdateDate(java.time.LocalDateTime.now());
-            return contractRepository.save(contract);
-        }).orElseThrow(() -> new RuntimeException("Contract not found"));
+    @Transactional
+    public Contract updateContractAmount(Long contractId, Double newAmount, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = expectedVersion == null
+                ? contractRepository.updateAmount(contractId, newAmount, now)
+                : contractRepository.updateAmountIfVersion(contractId, expectedVersion, newAmount, now);
+        if (updated == 0) {
+            if (!contractRepository.existsById(contractId)) {
+                throw new RuntimeException("Contract not found");
+            }
+            throw new OptimisticLockingFailureException("Contract " + contractId + " is no longer at version " + expectedVersion);
+        }
+        Contract contract = contractRepository.findWithClientById(contractId)
+                .orElseThrow(() -> new RuntimeException("Contract not found"));
+        eventPublisher.publishEvent(ContractsChangedEvent.of(ContractDelta.from(contract)));
+        return contract;
     }
 
     /**
      * Calculates the total cost amount of all active contracts for a client.
+     * The sum is computed by the database in a single aggregate query.
      *
      * @param clientId the client's ID
      * @return total active contract cost
      */
     public Double getActiveContractsTotal(Long clientId) {
-        return getActiveContractsForClient(clientId).stream()
-                .mapToDouble(Contract::getCostAmount)
-                .sum();
+        return contractRepository.sumActiveContractAmountsByClient(clientId, LocalDate.now());
+    }
+
+    /**
+     * Calculates the total cost amount of active contracts for many clients at once,
+     * with one aggregate query per chunk of client IDs.
+     *
+     * @param clientIds the IDs of the clients
+     * @return the totals keyed by client ID, in request order (0 for clients without active contracts)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Double> getActiveContractsTotals(List<Long> clientIds) {
+        LocalDate today = LocalDate.now();
+        List<Long> distinct = clientIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, Double> totals = new LinkedHashMap<>();
+        distinct.forEach(id -> totals.put(id, 0.0));
+        for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinct.size()));
+            contractRepository.findActiveTotalsPageAfterForClients(0L, chunk, today, Limit.unlimited())
+                    .forEach(total -> totals.put(total.clientId(), total.total()));
+        }
+        return totals;
+    }
+
+    /**
+     * Retrieves one page of the portfolio totals report: the number and total amount of
+     * active contracts per client, computed by the database in a single GROUP BY.
+     *
+     * @param asOf      the reference date of the active check, or null for today
+     * @param clientIds the clients to report on, or null/empty for all clients
+     * @param afterId   the cursor of the previous page, or null for the first page
+     * @param limit     the requested page size (clamped between 1 and MAX_PAGE_SIZE)
+     * @return the page of client totals and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public TotalsReportPage getTotalsReportPage(LocalDate asOf, List<Long> clientIds, Long afterId, int limit) {
+        LocalDate date = asOf != null ? asOf : LocalDate.now();
+        long after = afterId == null ? 0L : afterId;
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var items = clientIds == null || clientIds.isEmpty()
+                ? contractRepository.findActiveTotalsPageAfter(after, date, Limit.of(size))
+                : contractRepository.findActiveTotalsPageAfterForClients(after, clientIds, date, Limit.of(size));
+        return TotalsReportPage.of(date, items, size);
+    }
+
+    /**
+     * Streams the whole portfolio totals report to the given consumer, one client at a time,
+     * from a single GROUP BY query read over a database cursor.
+     *
+     * @param asOf the reference date of the active check, or null for today
+     * @param sink the consumer receiving each client total
+     */
+    @Transactional(readOnly = true)
+    public void streamTotalsReport(LocalDate asOf, Consumer<ClientTotal> sink) {
+        try (Stream<ClientTotal> totals = contractRepository.streamActiveTotals(asOf != null ? asOf : LocalDate.now())) {
+            totals.forEach(sink);
+        }
     }
 
     /**
      * Finds a client by ID or returns null if not found.
+     * Shares the client cache with ClientService.getClient; a cached client is
+     * returned as a new detached copy, never as an instance shared with other requests.
      *
      * @param id the client's ID
      * @return the client entity or null
      */
     public Client getClientById(Long id) {
-        return clientRepository.findById(id).orElse(null);
+        return clientCache.get(id, clientRepository::findById).orElse(null);
     }
 
     /**
-     * Retrieves all contracts in the database (admin-level query).
+     * Retrieves one page of contracts (active and inactive) ordered by ID.
+     * Uses keyset pagination: pass the cursor returned by the previous page.
      *
-     * @return list of all contracts
+     * @param afterId the cursor of the previous page, or null for the first page
+     * @param limit   the requested page size (clamped between 1 and MAX_PAGE_SIZE)
+     * @return the page of contract views and the cursor of the next page
      */
-    public List<Contract> getAllContracts() {
-        return contractRepository.findAll();
+    @Transactional(readOnly = true)
+    public ContractPage getContractsPage(Long afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var items = contractRepository.findPageAfter(afterId == null ? 0L : afterId, Limit.of(size));
+        return ContractPage.of(items, size);
     }
 
     /**
-     * Converts a Contract entity into a ContractView DTO for safe API exposure.
+     * Streams all contracts in the database to the given consumer, one at a time.
+     * Rows are read from a database cursor as DTO projections (no managed entities),
+     * so memory usage stays bounded regardless of the table size.
      *
-     * @param c the contract entity
-     * @return the corresponding ContractView DTO
+     * @param sink the consumer receiving each contract view
      */
-    public ContractView toView(Contract c) {
-        return new ContractView(
-                c.getId(),
-                c.getCostAmount(),
-                c.getStartDate(),
-                c.getEndDate(),
-                c.getClient().getId(),
-                c.getClient().getName()
-        );
+    @Transactional(readOnly = true)
+    public void streamAllContracts(Consumer<ContractView> sink) {
+        try (Stream<ContractView> contracts = contractRepository.streamAll()) {
+            contracts.forEach(sink);
+        }
+    }
+
+    /**
+     * Imports a sequence of contracts in chunks.
+     * - Each item is validated; invalid items are reported and skipped.
+     * - Client IDs of a chunk are resolved with a single query.
+     * - Each chunk is inserted in its own transaction using JDBC batching,
+     *   so a failing chunk never rolls back the chunks already imported.
+     * Items are read one at a time, so memory usage does not depend on the input size.
+     *
+     * @param items the contracts to import, as read from the request body
+     * @return the number of created contracts and the errors of rejected items
+     * @throws IOException if the request body cannot be read
+     */
+    public BatchImportResult importContracts(MappingIterator<ContractDTO> items) throws IOException {
+        return ChunkedImporter.run(items, IMPORT_CHUNK_SIZE, this::validate, this::importChunk);
+    }
+
+    /**
+     * Validates a contract of a bulk import.
+     *
+     * @param dto the contract to validate
+     * @return a description of the violations, or null if the contract is valid
+     */
+    private String validate(ContractDTO dto) {
+        if (dto.getClientId() == null) {
+            return "clientId: must not be null";
+        }
+        return ChunkedImporter.describe(validator.validate(dto));
+    }
+
+    /**
+     * Persists one chunk of valid contracts in a single transaction.
+     * Contracts referencing an unknown client are reported and skipped.
+     * The persistence context is cleared once the chunk is written: with open-in-view
+     * the chunk transactions share the request's EntityManager, which would otherwise
+     * keep every imported contract until the end of the request.
+     *
+     * @param chunk   the contracts to persist
+     * @param indexes the position of each contract in the original input
+     * @param errors  the error list to append to
+     * @return the number of contracts persisted
+     */
+    private int importChunk(List<ContractDTO> chunk, List<Integer> indexes, List<BatchImportError> errors) {
+        Integer created = transactionTemplate.execute(status -> {
+            Set<Long> clientIds = new HashSet<>();
+            chunk.forEach(dto -> clientIds.add(dto.getClientId()));
+            Set<Long> existing = clientRepository.findExistingIds(clientIds);
+
+            List<Contract> contracts = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                ContractDTO dto = chunk.get(i);
+                if (!existing.contains(dto.getClientId())) {
+                    errors.add(new BatchImportError(indexes.get(i), "Client not found: " + dto.getClientId()));
+                    continue;
+                }
+                Contract contract = new Contract();
+                contract.setClient(clientRepository.getReferenceById(dto.getClientId()));
+                contract.setCostAmount(dto.getCostAmount());
+                contract.setStartDate(dto.getStartDate() != null ? dto.getStartDate() : LocalDate.now());
+                contract.setEndDate(dto.getEndDate());
+                contracts.add(contract);
+            }
+            contractRepository.saveAll(contracts);
+            entityManager.flush();
+            entityManager.clear();
+            return contracts.size();
+        });
+        return created == null ? 0 : created;
     }
 }
@@ -0,0 +1,59 @@
+/**
+ * =============================================================
+ *  File: RepositoryCallContext.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Tracks which Spring Data repository method the current
+ *               thread is executing (e.g. "ContractRepository.findAll"),
+ *               so that logged SQL statements can name their caller.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.sqllog;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+public final class RepositoryCallContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryCallContext() {
+    }
+
+    /**
+     * Returns the repository method currently executed by this thread.
+     *
+     * @return "Repository.method", or null outside of a repository call
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Interceptor added to the repository proxies: records the invoked method
+     * for the duration of the call (restoring the outer one for nested calls).
+     */
+    static final class Interceptor implements MethodInterceptor {
+
+        private final String repositoryName;
+
+        Interceptor(Class<?> repositoryInterface) {
+            this.repositoryName = repositoryInterface.getSimpleName();
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String previous = CURRENT.get();
+            CURRENT.set(repositoryName + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        }
+    }
+}
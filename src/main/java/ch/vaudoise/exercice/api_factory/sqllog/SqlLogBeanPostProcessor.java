@@ -0,0 +1,47 @@
+/**
+ * =============================================================
+ *  File: SqlLogBeanPostProcessor.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Wraps the JDBC DataSource with the SQL statement logger
+ *               and adds RepositoryCallContext to every Spring Data
+ *               repository proxy.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.sqllog;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+public class SqlLogBeanPostProcessor implements BeanPostProcessor {
+
+    private final SqlStatementLogger sqlStatementLogger;
+
+    public SqlLogBeanPostProcessor(SqlStatementLogger sqlStatementLogger) {
+        this.sqlStatementLogger = sqlStatementLogger;
+    }
+
+    /**
+     * Repositories are created when their factory bean is initialized,
+     * so the interceptor must be registered before that.
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                            new RepositoryCallContext.Interceptor(repositoryInformation.getRepositoryInterface()))));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return sqlStatementLogger.wrap(dataSource);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * =============================================================
+ *  File: SqlStatementLogger.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Datasource-level SQL logger replacing show-sql.
+ *               Wraps the DataSource so that every JDBC statement execution
+ *               is timed; only statements slower than a threshold are logged
+ *               (WARN), plus a random sample of the others (INFO), each with
+ *               its calling repository method. Sampled queries also report
+ *               their row count and fetch time; bind values are only logged
+ *               (truncated) when enabled.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.sqllog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SqlStatementLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementLogger.class);
+
+    /** Row count reported when the statement does not tell how many rows it touched. */
+    private static final long UNKNOWN_ROWS = -1;
+
+    /** Fetch time reported when the rows of a query were not followed. */
+    private static final long UNKNOWN_FETCH = -1;
+
+    /** Maximum number of characters logged per bind value. */
+    private static final int MAX_PARAM_LENGTH = 20;
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final boolean logParams;
+
+    /**
+     * @param slowThreshold statements whose execution takes at least this long are always logged
+     * @param sampleRate    probability (0 to 1) of logging a statement below the threshold
+     * @param logParams     whether bind values are logged (they may contain personal data)
+     */
+    public SqlStatementLogger(Duration slowThreshold, double sampleRate, boolean logParams) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.logParams = logParams;
+    }
+
+    /**
+     * Wraps a DataSource so that the statements of its connections are timed and logged.
+     * Unwrapping (e.g. to HikariDataSource for pool metrics) and close() are delegated.
+     *
+     * @param dataSource the DataSource to wrap
+     * @return the logging DataSource
+     */
+    public DataSource wrap(DataSource dataSource) {
+        Class<?>[] interfaces = dataSource instanceof Closeable
+                ? new Class<?>[]{DataSource.class, Closeable.class}
+                : new Class<?>[]{DataSource.class};
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        });
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement statement) {
+                return proxy(method.getReturnType(), new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(method.getReturnType(), new StatementHandler(statement, null));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Logs an executed statement if its execution was slow or it was sampled.
+     * The execution time (until the driver returned) decides whether a statement is slow;
+     * the time spent fetching the rows of a query is reported separately when known,
+     * so that streamed reads are not mistaken for slow queries.
+     */
+    private void report(StatementHandler statement, long executeNanos, long fetchNanos, long rows) {
+        boolean slow = executeNanos >= slowThresholdNanos;
+        if (!slow && !statement.sampled) return;
+
+        String message = "{} ({} ms{}, {} rows) [{}] {}{}";
+        Object[] arguments = {
+                slow ? "Slow query" : "Sampled query",
+                executeNanos / 1_000_000,
+                fetchNanos == UNKNOWN_FETCH ? "" : " + " + fetchNanos / 1_000_000 + " ms fetch",
+                rows == UNKNOWN_ROWS ? "?" : rows,
+                statement.caller != null ? statement.caller : "-",
+                statement.sql,
+                logParams ? " | params: " + statement.params : ""
+        };
+        if (slow) {
+            log.warn(message, arguments);
+        } else {
+            log.info(message, arguments);
+        }
+    }
+
+    /**
+     * Truncates a bind value, so that long values (and most of a personal value) are not logged.
+     */
+    private static Object truncate(Object value) {
+        if (value == null) return null;
+        String text = value.toString();
+        return text.length() <= MAX_PARAM_LENGTH ? value : text.substring(0, MAX_PARAM_LENGTH) + "...";
+    }
+
+    /**
+     * Handles a (prepared) statement: times executions and, when enabled, records bind values.
+     * Every other call is passed through. The result set of a query is only wrapped when the
+     * statement is sampled, to count its rows and time the fetch; other queries are reported
+     * (if slow) as soon as the driver returns.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String caller = RepositoryCallContext.current();
+        private final boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        private final List<Object> params = logParams ? new ArrayList<>() : List.of();
+        private String sql;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (logParams) {
+                    recordParam(name, args);
+                }
+                return SqlStatementLogger.invoke(target, method, args);
+            }
+
+            if (args != null && args.length > 0 && args[0] instanceof String statementSql) {
+                sql = statementSql;
+            }
+            long start = System.nanoTime();
+            Object result = SqlStatementLogger.invoke(target, method, args);
+            long elapsed = System.nanoTime() - start;
+
+            if (result instanceof ResultSet resultSet) {
+                if (sampled) {
+                    return proxy(ResultSet.class, new ResultSetHandler(resultSet, this, elapsed));
+                }
+                report(this, elapsed, UNKNOWN_FETCH, UNKNOWN_ROWS);
+                return result;
+            }
+            report(this, elapsed, UNKNOWN_FETCH, rowCount(result));
+            return result;
+        }
+
+        private void recordParam(String name, Object[] args) {
+            if (name.equals("clearParameters")) {
+                params.clear();
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                while (params.size() < index) params.add(null);
+                params.set(index - 1, name.equals("setNull") ? null : truncate(args[1]));
+            }
+        }
+
+        private long rowCount(Object result) {
+            if (result instanceof Number count) return count.longValue();
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) total += Math.max(count, 0);
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) total += Math.max(count, 0);
+                return total;
+            }
+            return UNKNOWN_ROWS;
+        }
+    }
+
+    /**
+     * Counts the rows read from the result set of a sampled query
+     * and reports the query, with its fetch time, when the result set is closed.
+     */
+    private final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final StatementHandler statement;
+        private final long executeNanos;
+        private final long fetchStart = System.nanoTime();
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet target, StatementHandler statement, long executeNanos) {
+            this.target = target;
+            this.statement = statement;
+            this.executeNanos = executeNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatementLogger.invoke(target, method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if (Boolean.TRUE.equals(result)) rows++;
+                }
+                case "close" -> {
+                    if (!reported) {
+                        reported = true;
+                        report(statement, executeNanos, System.nanoTime() - fetchStart, rows);
+                    }
+                }
+                default -> {
+                }
+            }
+            return result;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlStatementLogger.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
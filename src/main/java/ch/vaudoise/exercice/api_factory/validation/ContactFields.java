@@ -0,0 +1,130 @@
+/**
+ * =============================================================
+ *  File: ContactFields.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Validation and normalization of client contact fields
+ *               (email and phone) implemented as single-pass scanners.
+ *               Accepts exactly the same inputs as the former regular
+ *               expressions, without compiling patterns or allocating
+ *               when the input is already valid and canonical.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.validation;
+
+public final class ContactFields {
+
+    /** Minimum number of digits in a phone number. */
+    private static final int PHONE_MIN_DIGITS = 7;
+
+    /** Maximum number of digits in a phone number. */
+    private static final int PHONE_MAX_DIGITS = 15;
+
+    private ContactFields() {
+    }
+
+    /**
+     * Checks an email address, equivalent to
+     * {@code ^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$}:
+     * a non-empty local part, a single '@', and a domain whose last label
+     * (after the last '.') has at least two letters.
+     *
+     * @param email the email to check (not null)
+     * @return true if the email has a valid format
+     */
+    public static boolean isValidEmail(CharSequence email) {
+        int length = email.length();
+        int at = -1;
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                at = i;
+                break;
+            }
+            if (!isLocalChar(c)) return false;
+        }
+        if (at < 1) return false;
+
+        int lastDot = -1;
+        for (int i = at + 1; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+            } else if (!isLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        // at least one domain character before the last dot, and 2+ characters after it
+        if (lastDot < at + 2 || length - lastDot - 1 < 2) return false;
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!isLetter(email.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks a phone number, equivalent to {@code ^[+]?([0-9][\s-]?){7,15}$}:
+     * an optional leading '+', then 7 to 15 digits, each optionally followed
+     * by a single space or hyphen.
+     *
+     * @param phone the phone number to check (not null)
+     * @return true if the phone number has a valid format
+     */
+    public static boolean isValidPhone(CharSequence phone) {
+        int length = phone.length();
+        int i = (length > 0 && phone.charAt(0) == '+') ? 1 : 0;
+        int digits = 0;
+        while (i < length) {
+            if (!isDigit(phone.charAt(i++))) return false;
+            digits++;
+            if (i < length && isPhoneSeparator(phone.charAt(i))) i++;
+        }
+        return digits >= PHONE_MIN_DIGITS && digits <= PHONE_MAX_DIGITS;
+    }
+
+    /**
+     * Removes spaces and hyphens from a phone number.
+     * Returns the same instance (no allocation) when there is nothing to remove.
+     *
+     * @param phone the phone number, may be null
+     * @return the phone number without separators, or null
+     */
+    public static String normalizePhone(String phone) {
+        if (phone == null) return null;
+
+        int length = phone.length();
+        int first = 0;
+        while (first < length && !isPhoneSeparator(phone.charAt(first))) first++;
+        if (first == length) return phone;
+
+        char[] chars = new char[length - 1];
+        phone.getChars(0, first, chars, 0);
+        int size = first;
+        for (int i = first + 1; i < length; i++) {
+            char c = phone.charAt(i);
+            if (!isPhoneSeparator(c)) chars[size++] = c;
+        }
+        return new String(chars, 0, size);
+    }
+
+    /** Separators allowed in phone numbers: whitespace as matched by regex "\s", and '-'. */
+    private static boolean isPhoneSeparator(char c) {
+        return c == ' ' || c == '-' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || isDigit(c);
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * =============================================================
+ *  File: ValidEmail.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Constraint checking that a string is a well-formed
+ *               email address (see ContactFields.isValidEmail).
+ *               Null values are considered valid.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Documented
+@Constraint(validatedBy = ValidEmail.Validator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidEmail {
+
+    String message() default "Invalid email format";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    /** Validator backed by the ContactFields email scanner. */
+    class Validator implements ConstraintValidator<ValidEmail, CharSequence> {
+
+        @Override
+        public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+            return value == null || ContactFields.isValidEmail(value);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * =============================================================
+ *  File: ValidPhone.java
+ *  Author: Daniel Mihalcioiu
+ *  Description: Constraint checking that a string is a well-formed
+ *               phone number (see ContactFields.isValidPhone).
+ *               Null values are considered valid.
+ * =============================================================
+ */
+
+package ch.vaudoise.exercice.api_factory.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Documented
+@Constraint(validatedBy = ValidPhone.Validator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidPhone {
+
+    String message() default "Invalid phone number format";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    /** Validator backed by the ContactFields phone scanner. */
+    class Validator implements ConstraintValidator<ValidPhone, CharSequence> {
+
+        @Override
+        public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+            return value == null || ContactFields.isValidPhone(value);
+        }
+    }
+}
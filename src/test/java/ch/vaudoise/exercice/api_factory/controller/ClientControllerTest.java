@@ -0,0 +1,147 @@
+package ch.vaudoise.exercice.api_factory.controller;
+
+import ch.vaudoise.exercice.api_factory.dto.ClientPage;
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.idempotency.IdempotencyService;
+import ch.vaudoise.exercice.api_factory.service.ClientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ClientControllerTest {
+
+	private static final String BODY = """
+			{"name": "Acme SA", "email": "info@acme.ch", "phone": "+41 21 111 11 11"}
+			""";
+
+	private final ClientService clientService = mock(ClientService.class);
+
+	private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+			new ClientController(clientService, new ObjectMapper(), mock(IdempotencyService.class))).build();
+
+	@Test
+	void activeClientsAreStillListedAsAJsonArray() throws Exception {
+		doAnswer(call -> {
+			Consumer<Client> sink = call.getArgument(0);
+			sink.accept(company(1L, "Acme"));
+			sink.accept(company(2L, "Beta"));
+			return null;
+		}).when(clientService).streamActiveClients(any());
+
+		MvcResult result = mockMvc.perform(get("/clients"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[1].name").value("Beta"));
+	}
+
+	@Test
+	void clientsArePaginatedOnTheirOwnPath() throws Exception {
+		when(clientService.getClientsPage(1L, 1)).thenReturn(new ClientPage(List.of(company(2L, "Beta")), 2L));
+
+		mockMvc.perform(get("/clients/page").param("after", "1").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items[0].name").value("Beta"))
+				.andExpect(jsonPath("$.nextCursor").value(2));
+	}
+
+	@Test
+	void updateWithTheCurrentVersionReturnsTheNewEtag() throws Exception {
+		Company updated = new Company();
+		updated.setId(1L);
+		updated.setName("Acme SA");
+		updated.setVersion(4L);
+		when(clientService.updateClient(eq(1L), any(), any(), any(), eq(3L))).thenReturn(updated);
+
+		mockMvc.perform(update(1L).header(HttpHeaders.IF_MATCH, "\"3\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+	}
+
+	@Test
+	void updateWithAStaleVersionIsRejectedWith412() throws Exception {
+		when(clientService.updateClient(eq(1L), any(), any(), any(), eq(2L)))
+				.thenThrow(new OptimisticLockingFailureException("Client 1 is no longer at version 2"));
+
+		mockMvc.perform(update(1L).header(HttpHeaders.IF_MATCH, "\"2\""))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void malformedIfMatchIsRejectedWith400() throws Exception {
+		mockMvc.perform(update(1L).header(HttpHeaders.IF_MATCH, "W/\"abc\""))
+				.andExpect(status().isBadRequest());
+
+		verifyNoInteractions(clientService);
+	}
+
+	@Test
+	void updateOfAnUnknownClientReturns404() throws Exception {
+		when(clientService.updateClient(eq(99L), any(), any(), any(), any()))
+				.thenThrow(new RuntimeException("Client not found"));
+
+		mockMvc.perform(update(99L).header(HttpHeaders.IF_MATCH, "\"0\""))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void updateWithoutIfMatchIsUnconditional() throws Exception {
+		Company updated = new Company();
+		updated.setVersion(1L);
+		when(clientService.updateClient(eq(1L), any(), any(), any(), any())).thenReturn(updated);
+
+		mockMvc.perform(update(1L)).andExpect(status().isOk());
+
+		verify(clientService).updateClient(eq(1L), any(), any(), any(), eq(null));
+	}
+
+	@Test
+	void restoreModifiedConcurrentlyReturns409() throws Exception {
+		when(clientService.restoreClient(anyLong()))
+				.thenThrow(new OptimisticLockingFailureException("Client 1 was modified concurrently"));
+
+		mockMvc.perform(put("/clients/1/restore")).andExpect(status().isConflict());
+	}
+
+	private static Company company(Long id, String name) {
+		Company company = new Company();
+		company.setId(id);
+		company.setName(name);
+		return company;
+	}
+
+	private static MockHttpServletRequestBuilder update(Long id) {
+		return put("/clients/" + id).contentType(MediaType.APPLICATION_JSON).content(BODY);
+	}
+}
@@ -0,0 +1,175 @@
+package ch.vaudoise.exercice.api_factory.controller;
+
+import ch.vaudoise.exercice.api_factory.config.JacksonConfig;
+import ch.vaudoise.exercice.api_factory.dto.ContractPage;
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.entity.Contract;
+import ch.vaudoise.exercice.api_factory.events.ContractEventBroadcaster;
+import ch.vaudoise.exercice.api_factory.idempotency.IdempotencyService;
+import ch.vaudoise.exercice.api_factory.service.ContractRepricingService;
+import ch.vaudoise.exercice.api_factory.service.ContractService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ContractControllerTest {
+
+	private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+	private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+	private final ContractService contractService = mock(ContractService.class);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final MockMvc mockMvc;
+
+	ContractControllerTest() {
+		// Same converters as the application: JSON first, then the binary formats of JacksonConfig
+		JacksonConfig jacksonConfig = new JacksonConfig(objectMapper);
+		jacksonConfig.setUp();
+		mockMvc = MockMvcBuilders.standaloneSetup(new ContractController(contractService, objectMapper,
+						mock(ContractEventBroadcaster.class), mock(ContractRepricingService.class),
+						mock(IdempotencyService.class)))
+				.setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper),
+						jacksonConfig.smileHttpMessageConverter(), jacksonConfig.cborHttpMessageConverter())
+				.build();
+	}
+
+	@Test
+	void contractIsServedAsJsonByDefault() throws Exception {
+		when(contractService.getContract(10L)).thenReturn(Optional.of(contract(10L, 120.0, 6L)));
+
+		mockMvc.perform(get("/contracts/10"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.costAmount").value(120.0));
+	}
+
+	@Test
+	void contractIsServedAsSmileOrCborOnRequest() throws Exception {
+		when(contractService.getContract(10L)).thenReturn(Optional.of(contract(10L, 120.0, 6L)));
+		ContractView expected = ContractView.from(contract(10L, 120.0, 6L));
+
+		assertThat(fetch(SMILE, objectMapper.copyWith(new SmileFactory()))).isEqualTo(expected);
+		assertThat(fetch(CBOR, objectMapper.copyWith(new CBORFactory()))).isEqualTo(expected);
+	}
+
+	@Test
+	void allContractsAreStillListedAsAJsonArray() throws Exception {
+		doAnswer(call -> {
+			Consumer<ContractView> sink = call.getArgument(0);
+			sink.accept(ContractView.from(contract(10L, 120.0, 6L)));
+			sink.accept(ContractView.from(contract(11L, 130.0, 1L)));
+			return null;
+		}).when(contractService).streamAllContracts(any());
+
+		MvcResult result = mockMvc.perform(get("/contracts"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].id").value(10))
+				.andExpect(jsonPath("$[1].costAmount").value(130.0));
+	}
+
+	@Test
+	void contractsArePaginatedOnTheirOwnPath() throws Exception {
+		ContractView view = ContractView.from(contract(11L, 130.0, 1L));
+		when(contractService.getContractsPage(10L, 1)).thenReturn(new ContractPage(List.of(view), 11L));
+
+		mockMvc.perform(get("/contracts/page").param("after", "10").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items[0].id").value(11))
+				.andExpect(jsonPath("$.nextCursor").value(11));
+	}
+
+	@Test
+	void amountUpdateWithTheCurrentVersionReturnsTheNewEtag() throws Exception {
+		Contract updated = contract(10L, 120.0, 6L);
+		when(contractService.updateContractAmount(10L, 120.0, 5L)).thenReturn(updated);
+
+		mockMvc.perform(put("/contracts/10/amount").param("value", "120.0").header(HttpHeaders.IF_MATCH, "\"5\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+	}
+
+	@Test
+	void amountUpdateWithAStaleVersionIsRejectedWith412() throws Exception {
+		when(contractService.updateContractAmount(eq(10L), any(), eq(4L)))
+				.thenThrow(new OptimisticLockingFailureException("Contract 10 is no longer at version 4"));
+
+		mockMvc.perform(put("/contracts/10/amount").param("value", "120.0").header(HttpHeaders.IF_MATCH, "\"4\""))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void malformedIfMatchIsRejectedWith400() throws Exception {
+		mockMvc.perform(put("/contracts/10/amount").param("value", "120.0").header(HttpHeaders.IF_MATCH, "\"v4\""))
+				.andExpect(status().isBadRequest());
+
+		verifyNoInteractions(contractService);
+	}
+
+	@Test
+	void amountUpdateOfAnUnknownContractReturns404() throws Exception {
+		when(contractService.updateContractAmount(eq(99L), any(), any()))
+				.thenThrow(new RuntimeException("Contract not found"));
+
+		mockMvc.perform(put("/contracts/99/amount").param("value", "120.0"))
+				.andExpect(status().isNotFound());
+	}
+
+	private ContractView fetch(MediaType mediaType, ObjectMapper reader) throws Exception {
+		MvcResult result = mockMvc.perform(get("/contracts/10").accept(mediaType))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(mediaType))
+				.andReturn();
+		return reader.readValue(result.getResponse().getContentAsByteArray(), ContractView.class);
+	}
+
+	private static Contract contract(Long id, Double amount, Long version) {
+		Company client = new Company();
+		client.setId(1L);
+		client.setName("Acme");
+		Contract contract = new Contract();
+		contract.setId(id);
+		contract.setClient(client);
+		contract.setCostAmount(amount);
+		contract.setStartDate(LocalDate.of(2025, 1, 1));
+		contract.setVersion(version);
+		return contract;
+	}
+}
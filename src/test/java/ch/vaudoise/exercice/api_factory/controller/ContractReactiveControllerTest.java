@@ -0,0 +1,73 @@
+package ch.vaudoise.exercice.api_factory.controller;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractView;
+import ch.vaudoise.exercice.api_factory.repository.ContractReactiveRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ContractReactiveControllerTest {
+
+	private final ContractReactiveRepository contractReactiveRepository = mock(ContractReactiveRepository.class);
+
+	private final MockMvc mockMvc = MockMvcBuilders
+			.standaloneSetup(new ContractReactiveController(contractReactiveRepository))
+			.build();
+
+	@Test
+	void allContractsAreStreamedAsNdjsonByDefault() throws Exception {
+		when(contractReactiveRepository.findAllContractViewsByClient(1L)).thenReturn(Flux.just(view(10L), view(11L)));
+
+		MvcResult result = mockMvc.perform(get("/reactive/contracts/client/1/all"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				// One JSON object per line, in database order
+				.andExpect(content().string(matchesPattern("\\{[^\n]*\"id\":10,[^\n]*}\n\\{[^\n]*\"id\":11,[^\n]*}\n")));
+	}
+
+	@Test
+	void allContractsAreNotOfferedAsABufferedJsonArray() throws Exception {
+		mockMvc.perform(get("/reactive/contracts/client/1/all").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotAcceptable());
+	}
+
+	@Test
+	void activeContractsAreStreamedByDefaultAndListedOnRequest() throws Exception {
+		when(contractReactiveRepository.findActiveContractViewsByClient(eq(1L), any(LocalDate.class)))
+				.thenAnswer(call -> Flux.just(view(10L)));
+
+		MvcResult streamed = mockMvc.perform(get("/reactive/contracts/client/1")).andReturn();
+		mockMvc.perform(asyncDispatch(streamed))
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+		MvcResult listed = mockMvc.perform(get("/reactive/contracts/client/1").accept(MediaType.APPLICATION_JSON)).andReturn();
+		mockMvc.perform(asyncDispatch(listed))
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$[0].id").value(10));
+	}
+
+	private static ContractView view(Long id) {
+		return new ContractView(id, 100.0, LocalDate.of(2025, 1, 1), null, 1L, "Acme");
+	}
+}
@@ -0,0 +1,44 @@
+package ch.vaudoise.exercice.api_factory.dto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ChangeCursorTest {
+
+	@Test
+	void encodedCursorDecodesToTheSamePosition() {
+		var cursor = new ChangeCursor(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000), 42L,
+				LocalDateTime.of(2025, 2, 28, 23, 59), 7L);
+
+		assertThat(ChangeCursor.decode(cursor.encode())).isEqualTo(cursor);
+		assertThat(ChangeCursor.decode(ChangeCursor.START.encode())).isEqualTo(ChangeCursor.START);
+	}
+
+	@Test
+	void missingCursorStartsFromTheBeginning() {
+		assertThat(ChangeCursor.decode(null)).isEqualTo(ChangeCursor.START);
+		assertThat(ChangeCursor.decode(" ")).isEqualTo(ChangeCursor.START);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"not base64!",
+			"2025-03-01T10:15|42|2025-03-01T10:15",
+			"yesterday|42|2025-03-01T10:15|7",
+			"2025-03-01T10:15|x|2025-03-01T10:15|7"
+	})
+	void invalidCursorIsRejected(String raw) {
+		String value = raw.contains("!") ? raw
+				: Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+		assertThatIllegalArgumentException().isThrownBy(() -> ChangeCursor.decode(value));
+	}
+}
@@ -0,0 +1,162 @@
+package ch.vaudoise.exercice.api_factory.events;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractDelta;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContractEventBroadcasterTest {
+
+	private final ContractRepository contractRepository = mock(ContractRepository.class);
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void deltasArePushedOnlyAfterCommit() {
+		var broadcaster = new ContractEventBroadcaster(contractRepository, 16, Duration.ofMinutes(1), Runnable::run, Runnable::run);
+		var emitter = new RecordingEmitter();
+		broadcaster.subscribe(null, emitter);
+		when(contractRepository.findDeltasByClients(List.of(2L))).thenReturn(List.of(delta(20L, 2L, "Renamed")));
+
+		TransactionSynchronizationManager.initSynchronization();
+		broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(10L, 1L, "Acme")));
+		broadcaster.onContractsChanged(ContractsChangedEvent.ofClients(List.of(2L)));
+		verify(contractRepository, never()).findDeltasByClients(anyCollection());
+		assertThat(emitter.sent).isEmpty();
+
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+		assertThat(emitter.sent).isEmpty();
+		synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+		assertThat(emitter.sent).extracting(ContractDelta::id).containsExactly(10L, 20L);
+		assertThat(emitter.sent.get(1).clientName()).isEqualTo("Renamed");
+	}
+
+	@Test
+	void rolledBackChangesAreNotPushed() {
+		var broadcaster = new ContractEventBroadcaster(contractRepository, 16, Duration.ofMinutes(1), Runnable::run, Runnable::run);
+		var emitter = new RecordingEmitter();
+		broadcaster.subscribe(null, emitter);
+
+		TransactionSynchronizationManager.initSynchronization();
+		broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(10L, 1L, "Acme")));
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		assertThat(emitter.sent).isEmpty();
+	}
+
+	@Test
+	void clientSubscribersOnlyReceiveTheirClientsContracts() {
+		var broadcaster = new ContractEventBroadcaster(contractRepository, 16, Duration.ofMinutes(1), Runnable::run, Runnable::run);
+		var all = new RecordingEmitter();
+		var client1 = new RecordingEmitter();
+		var client2 = new RecordingEmitter();
+		broadcaster.subscribe(null, all);
+		broadcaster.subscribe(1L, client1);
+		broadcaster.subscribe(2L, client2);
+
+		broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(10L, 1L, "Acme")));
+		broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(11L, 1L, "Acme")));
+
+		assertThat(all.sent).extracting(ContractDelta::id).containsExactly(10L, 11L);
+		assertThat(client1.sent).extracting(ContractDelta::id).containsExactly(10L, 11L);
+		assertThat(client2.sent).isEmpty();
+	}
+
+	@Test
+	void fullBufferDisconnectsTheSubscriberWithoutBlockingTheDispatch() throws InterruptedException {
+		ExecutorService senders = Executors.newSingleThreadExecutor();
+		try {
+			var broadcaster = new ContractEventBroadcaster(contractRepository, 1, Duration.ofMinutes(1), Runnable::run, senders);
+			var sending = new CountDownLatch(1);
+			var release = new CountDownLatch(1);
+			var stalled = new RecordingEmitter() {
+				@Override
+				public void send(SseEventBuilder builder) {
+					sending.countDown();
+					await(release);
+				}
+			};
+			broadcaster.subscribe(null, stalled);
+
+			// The sender takes the first delta and blocks in the socket write
+			broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(10L, 1L, "Acme")));
+			assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+				broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(11L, 1L, "Acme")));
+				broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(12L, 1L, "Acme")));
+			});
+			assertThat(stalled.completed).isTrue();
+
+			// A disconnected subscriber receives nothing more
+			release.countDown();
+			var other = new RecordingEmitter();
+			broadcaster.subscribe(null, other);
+			broadcaster.onContractsChanged(ContractsChangedEvent.of(delta(13L, 1L, "Acme")));
+			senders.shutdown();
+			assertThat(senders.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(other.sent).extracting(ContractDelta::id).containsExactly(13L);
+		} finally {
+			senders.shutdownNow();
+		}
+	}
+
+	private static ContractDelta delta(Long id, Long clientId, String clientName) {
+		return new ContractDelta(id, 100.0, null, null, clientId, clientName, 1L, 1L);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Emitter recording the sent deltas instead of writing to a response. */
+	private static class RecordingEmitter extends SseEmitter {
+		final List<ContractDelta> sent = new CopyOnWriteArrayList<>();
+		volatile boolean completed;
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			builder.build().stream()
+					.map(ResponseBodyEmitter.DataWithMediaType::getData)
+					.filter(ContractDelta.class::isInstance)
+					.forEach(data -> sent.add((ContractDelta) data));
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+	}
+}
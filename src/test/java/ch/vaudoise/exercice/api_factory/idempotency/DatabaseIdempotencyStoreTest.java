@@ -0,0 +1,93 @@
+package ch.vaudoise.exercice.api_factory.idempotency;
+
+import ch.vaudoise.exercice.api_factory.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction: like in production, every store call commits on its own,
+ * so that a concurrent claim really hits the primary key.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseIdempotencyStoreTest {
+
+	@Autowired
+	private IdempotencyRecordRepository repository;
+
+	private DatabaseIdempotencyStore store;
+
+	@BeforeEach
+	void createStore() {
+		store = new DatabaseIdempotencyStore(repository, Duration.ofDays(1), Duration.ofMinutes(1));
+	}
+
+	@AfterEach
+	void deleteRecords() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void secondClaimReadsBackTheInProgressThenTheCompletedEntry() {
+		assertThat(store.claim("key-1", "fp")).isNull();
+		assertThat(store.claim("key-1", "fp")).isEqualTo(StoredResponse.inProgress("fp"));
+
+		store.complete("key-1", new StoredResponse("fp", 201, "{\"id\":1}"));
+
+		assertThat(store.claim("key-1", "fp")).isEqualTo(new StoredResponse("fp", 201, "{\"id\":1}"));
+	}
+
+	@Test
+	void claimOfAnotherRequestReturnsTheRecordedFingerprint() {
+		store.claim("key-1", "fp-1");
+
+		assertThat(store.claim("key-1", "fp-2").fingerprint()).isEqualTo("fp-1");
+	}
+
+	@Test
+	void releasedKeyCanBeClaimedAgain() {
+		store.claim("key-1", "fp");
+
+		store.release("key-1");
+
+		assertThat(store.claim("key-1", "fp")).isNull();
+	}
+
+	@Test
+	void inProgressClaimIsReclaimableAfterItsLease() {
+		repository.insertInProgress("key-1", "fp", LocalDateTime.now().minusMinutes(5));
+
+		assertThat(store.claim("key-1", "fp")).isNull();
+	}
+
+	@Test
+	void completedEntryOutlivesTheLeaseUntilItsTtl() {
+		repository.insertInProgress("key-1", "fp", LocalDateTime.now().minusMinutes(5));
+		repository.complete("key-1", 201, "{}");
+		repository.insertInProgress("key-2", "fp", LocalDateTime.now().minusDays(2));
+		repository.complete("key-2", 201, "{}");
+
+		assertThat(store.claim("key-1", "fp")).isEqualTo(new StoredResponse("fp", 201, "{}"));
+		assertThat(store.claim("key-2", "fp")).isNull();
+	}
+
+	@Test
+	void lateCompletionDoesNotOverwriteTheResponseOfTheNextClaim() {
+		store.claim("key-1", "fp");
+		store.complete("key-1", new StoredResponse("fp", 201, "{\"id\":2}"));
+
+		store.complete("key-1", new StoredResponse("fp", 201, "{\"id\":1}"));
+
+		assertThat(store.claim("key-1", "fp").body()).isEqualTo("{\"id\":2}");
+	}
+}
@@ -0,0 +1,62 @@
+package ch.vaudoise.exercice.api_factory.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyServiceTest {
+
+	private final IdempotencyService service =
+			new IdempotencyService(new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100), new ObjectMapper());
+
+	private final AtomicInteger created = new AtomicInteger();
+
+	@Test
+	void retryWithTheSameKeyReplaysTheFirstResponse() {
+		var first = create("key-1", Map.of("amount", 100));
+		var retry = create("key-1", Map.of("amount", 100));
+
+		assertThat(created).hasValue(1);
+		assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(retry.getBody()).isEqualTo(first.getBody());
+		assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+	}
+
+	@Test
+	void keyReusedForAnotherRequestIsRejected() {
+		create("key-1", Map.of("amount", 100));
+
+		assertThat(create("key-1", Map.of("amount", 200)).getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		assertThat(created).hasValue(1);
+	}
+
+	@Test
+	void requestsWithoutKeyOrWithDistinctKeysAreAllProcessed() {
+		create(null, Map.of("amount", 100));
+		create(null, Map.of("amount", 100));
+		create("key-1", Map.of("amount", 100));
+		create("key-2", Map.of("amount", 100));
+
+		assertThat(created).hasValue(4);
+	}
+
+	@Test
+	void failedRequestReleasesItsKey() {
+		service.execute("key-1", "test", Map.of("amount", 100), Integer.class, () -> ResponseEntity.notFound().build());
+
+		create("key-1", Map.of("amount", 100));
+
+		assertThat(created).hasValue(1);
+	}
+
+	private ResponseEntity<Integer> create(String key, Object request) {
+		return service.execute(key, "test", request, Integer.class, () -> ResponseEntity.ok(created.incrementAndGet()));
+	}
+}
@@ -0,0 +1,59 @@
+package ch.vaudoise.exercice.api_factory.repository;
+
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class ClientRepositoryTest {
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void conditionalContactUpdateOnlyAppliesToTheExpectedVersion() {
+		Long id = persistCompany();
+		LocalDateTime now = LocalDateTime.now();
+
+		int stale = clientRepository.updateContactFieldsIfVersion(id, 1L, "Stale", "stale@acme.ch", "0210000000", now);
+		int current = clientRepository.updateContactFieldsIfVersion(id, 0L, "Acme SA", "info@acme.ch", "0211111111", now);
+		int replayed = clientRepository.updateContactFieldsIfVersion(id, 0L, "Acme AG", "info@acme.ch", "0211111111", now);
+		entityManager.clear();
+
+		assertThat(stale).isZero();
+		assertThat(current).isEqualTo(1);
+		assertThat(replayed).isZero();
+		Client client = clientRepository.findById(id).orElseThrow();
+		assertThat(client.getName()).isEqualTo("Acme SA");
+		assertThat(client.getEmail()).isEqualTo("info@acme.ch");
+		assertThat(client.getPhone()).isEqualTo("0211111111");
+		assertThat(client.getVersion()).isEqualTo(1L);
+	}
+
+	@Test
+	void conditionalContactUpdateOfAnUnknownClientTouchesNothing() {
+		assertThat(clientRepository.updateContactFieldsIfVersion(
+				Long.MAX_VALUE, 0L, "Acme", "info@acme.ch", null, LocalDateTime.now())).isZero();
+	}
+
+	private Long persistCompany() {
+		Company company = new Company();
+		company.setName("Acme");
+		company.setEmail("contact@acme.ch");
+		company.setCompanyIdentifier("acm-123");
+		entityManager.persist(company);
+		entityManager.flush();
+		entityManager.clear();
+		return company.getId();
+	}
+}
@@ -0,0 +1,191 @@
+package ch.vaudoise.exercice.api_factory.repository;
+
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.entity.Contract;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ContractRepositoryTest {
+
+	@Autowired
+	private ContractRepository contractRepository;
+
+	@Autowired
+	private ContractHistoryRepository contractHistoryRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 25})
+	void contractViewsAreReadInASingleStatement(int contractCount) {
+		Long clientId = persistClientWithContracts(contractCount);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		var active = contractRepository.findActiveContractViewsByClient(clientId, LocalDate.now());
+		var all = contractRepository.findAllContractViewsByClient(clientId);
+		var page = contractRepository.findPageAfter(0L, Limit.of(100));
+
+		assertThat(active).hasSize(contractCount);
+		assertThat(all).hasSize(contractCount);
+		assertThat(page).hasSize(contractCount);
+		assertThat(all).allSatisfy(view -> assertThat(view.clientName()).isEqualTo("Acme"));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 3})
+	void activeTotalIsComputedByTheDatabase(int contractCount) {
+		Long clientId = persistClientWithContracts(contractCount);
+
+		Double total = contractRepository.sumActiveContractAmountsByClient(clientId, LocalDate.now());
+
+		// amounts are 100, 101, 102, ...
+		assertThat(total).isEqualTo(contractCount * 100.0 + contractCount * (contractCount - 1) / 2.0);
+	}
+
+	@Test
+	void closingContractsOnlyTouchesActiveOnes() {
+		Long clientId = persistClientWithContracts(3);
+		LocalDate today = LocalDate.now();
+
+		int closed = contractRepository.closeActiveContractsOfClients(List.of(clientId), today, LocalDateTime.now());
+		int closedAgain = contractRepository.closeActiveContractsOfClients(List.of(clientId), today, LocalDateTime.now());
+
+		assertThat(closed).isEqualTo(3);
+		assertThat(closedAgain).isZero();
+		assertThat(contractRepository.findActiveContractViewsByClient(clientId, today)).isEmpty();
+	}
+
+	@Test
+	void totalsReportGroupsActiveContractsPerClientAsOfADate() {
+		Long first = persistClientWithContracts(2);
+		Long second = persistClientWithContracts(3);
+		LocalDate today = LocalDate.now();
+		contractRepository.closeActiveContractsOfClients(List.of(second), today, LocalDateTime.now());
+
+		var current = contractRepository.findActiveTotalsPageAfter(0L, today, Limit.of(10));
+		var yesterday = contractRepository.findActiveTotalsPageAfter(0L, today.minusDays(1), Limit.of(10));
+		var nextPage = contractRepository.findActiveTotalsPageAfter(first, today.minusDays(1), Limit.of(10));
+
+		assertThat(current).extracting("clientId", "contractCount", "total")
+				.containsExactly(tuple(first, 2L, 201.0));
+		assertThat(yesterday).extracting("clientId").containsExactly(first, second);
+		assertThat(nextPage).extracting("clientId", "contractCount", "total")
+				.containsExactly(tuple(second, 3L, 303.0));
+	}
+
+	@Test
+	void changesAreReadInUpdateOrderAfterTheCursor() {
+		persistClientWithContracts(3);
+		LocalDateTime origin = LocalDateTime.of(1970, 1, 1, 0, 0);
+		LocalDateTime until = LocalDateTime.now().plusDays(1);
+
+		var all = contractRepository.findChangesAfter(origin, 0L, until, Limit.of(10));
+		var first = all.get(0);
+		var rest = contractRepository.findChangesAfter(first.updateDate(), first.id(), until, Limit.of(10));
+
+		assertThat(all).hasSize(3);
+		assertThat(rest).containsExactlyElementsOf(all.subList(1, 3));
+		assertThat(contractRepository.findChangesAfter(until, 0L, until.plusDays(1), Limit.of(10))).isEmpty();
+		assertThat(contractRepository.findChangesAfter(origin, 0L, first.updateDate(), Limit.of(10))).isEmpty();
+	}
+
+	@Test
+	void repricingScalesTheAmountsOfTheSelectedActiveContracts() {
+		Long clientId = persistClientWithContracts(3);
+		LocalDate today = LocalDate.now();
+		var ids = contractRepository.findActiveIdsAfterForClients(0L, List.of(clientId), today, Limit.of(2));
+
+		int updated = contractRepository.scaleAmounts(ids, 1.1, LocalDateTime.now());
+		entityManager.clear();
+
+		assertThat(contractRepository.countActiveForClients(List.of(clientId), today)).isEqualTo(3);
+		assertThat(updated).isEqualTo(2);
+		assertThat(contractRepository.findAllContractViewsByClient(clientId))
+				.extracting("costAmount")
+				.containsExactlyInAnyOrder(110.0, 111.1, 102.0);
+	}
+
+	@Test
+	void archivingMovesExpiredContractsToTheHistoryTable() {
+		Long clientId = persistClientWithContracts(2);
+		LocalDate today = LocalDate.now();
+		contractRepository.closeActiveContractsOfClients(List.of(clientId), today.minusDays(400), LocalDateTime.now());
+
+		var ids = contractRepository.findIdsEndedBefore(today.minusDays(365), Limit.of(10));
+		var clientIds = contractRepository.findClientIdsOf(ids);
+		int copied = contractHistoryRepository.copyFromContracts(ids);
+		int deleted = contractRepository.deleteAllByIds(ids);
+
+		assertThat(clientIds).containsExactly(clientId);
+		assertThat(copied).isEqualTo(2);
+		assertThat(deleted).isEqualTo(2);
+		assertThat(contractRepository.findAllContractViewsByClient(clientId)).isEmpty();
+		assertThat(contractHistoryRepository.findContractViewsByClient(clientId))
+				.extracting("costAmount", "endDate", "clientName")
+				.containsExactlyInAnyOrder(tuple(100.0, today.minusDays(400), "Acme"), tuple(101.0, today.minusDays(400), "Acme"));
+	}
+
+	@Test
+	void conditionalAmountUpdateOnlyAppliesToTheExpectedVersion() {
+		Long clientId = persistClientWithContracts(1);
+		Long contractId = contractRepository.findAllContractViewsByClient(clientId).get(0).id();
+
+		int stale = contractRepository.updateAmountIfVersion(contractId, 1L, 500.0, LocalDateTime.now());
+		int current = contractRepository.updateAmountIfVersion(contractId, 0L, 500.0, LocalDateTime.now());
+		int again = contractRepository.updateAmountIfVersion(contractId, 0L, 600.0, LocalDateTime.now());
+		entityManager.clear();
+
+		assertThat(stale).isZero();
+		assertThat(current).isEqualTo(1);
+		assertThat(again).isZero();
+		assertThat(contractRepository.findWithClientById(contractId))
+				.hasValueSatisfying(contract -> {
+					assertThat(contract.getCostAmount()).isEqualTo(500.0);
+					assertThat(contract.getVersion()).isEqualTo(1L);
+				});
+	}
+
+	private Long persistClientWithContracts(int contractCount) {
+		Company company = new Company();
+		company.setName("Acme");
+		company.setEmail("contact@acme.ch");
+		company.setCompanyIdentifier("acm-123");
+		entityManager.persist(company);
+
+		for (int i = 0; i < contractCount; i++) {
+			Contract contract = new Contract();
+			contract.setClient(company);
+			contract.setCostAmount(100.0 + i);
+			entityManager.persist(contract);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		return company.getId();
+	}
+}
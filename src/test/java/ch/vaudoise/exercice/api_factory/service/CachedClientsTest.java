@@ -0,0 +1,83 @@
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.config.CacheConfig;
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedClientsTest {
+
+	private final CachedClients clientCache = new CachedClients(new CacheConfig().cacheManager("maximumSize=100"));
+
+	@Test
+	void clientIsLoadedOnceThenServedAsCopies() {
+		AtomicInteger loads = new AtomicInteger();
+
+		Client first = clientCache.get(1L, id -> {
+			loads.incrementAndGet();
+			return Optional.of(company(id, 1L));
+		}).orElseThrow();
+		Client second = clientCache.get(1L, id -> {
+			loads.incrementAndGet();
+			return Optional.of(company(id, 2L));
+		}).orElseThrow();
+
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getVersion()).isEqualTo(1L);
+	}
+
+	@Test
+	void unknownClientIsNotCached() {
+		assertThat(clientCache.get(1L, id -> Optional.empty())).isEmpty();
+
+		assertThat(clientCache.get(1L)).isNull();
+	}
+
+	@Test
+	void evictionDuringALoadRemovesTheLoadedClient() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch slowRead = new CountDownLatch(1);
+
+		// A reader reads version 1, then is slow to return it...
+		CompletableFuture<Optional<Client>> reader = CompletableFuture.supplyAsync(() -> clientCache.get(1L, id -> {
+			loading.countDown();
+			await(slowRead, 200);
+			return Optional.of(company(id, 1L));
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// ...while a writer commits version 2 and evicts the client
+		clientCache.evict(1L);
+
+		assertThat(reader.get(5, TimeUnit.SECONDS).orElseThrow().getVersion()).isEqualTo(1L);
+		assertThat(clientCache.get(1L)).isNull();
+		assertThat(clientCache.get(1L, id -> Optional.of(company(id, 2L))).orElseThrow().getVersion()).isEqualTo(2L);
+	}
+
+	private static Company company(Long id, Long version) {
+		Company company = new Company();
+		company.setId(id);
+		company.setName("Acme");
+		company.setEmail("contact@acme.ch");
+		company.setCompanyIdentifier("acm-123");
+		company.setVersion(version);
+		return company;
+	}
+
+	private static void await(CountDownLatch latch, long millis) {
+		try {
+			latch.await(millis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.dto.ChangeCursor;
+import ch.vaudoise.exercice.api_factory.dto.ChangeEvent;
+import ch.vaudoise.exercice.api_factory.dto.ContractChange;
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChangeFeedServiceTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+	private final ContractRepository contractRepository = mock(ContractRepository.class);
+	private final ClientRepository clientRepository = mock(ClientRepository.class);
+	private final ChangeFeedService service =
+			new ChangeFeedService(contractRepository, clientRepository, Duration.ofSeconds(30));
+
+	@Test
+	void changesAreMergedByUpdateDateAndEachCursorAdvancesToItsLastChange() {
+		when(contractRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of(
+				contract(10L, T0.plusSeconds(1)),
+				contract(11L, T0.plusSeconds(3)),
+				contract(12L, T0.plusSeconds(5))));
+		when(clientRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of(
+				client(1L, T0.plusSeconds(2), true),
+				client(2L, T0.plusSeconds(6), true)));
+
+		var page = service.getChanges(null, 3);
+
+		assertThat(page.items()).extracting(ChangeEvent::type, ChangeEvent::id).containsExactly(
+				tuple(ChangeEvent.CONTRACT, 10L),
+				tuple(ChangeEvent.CLIENT, 1L),
+				tuple(ChangeEvent.CONTRACT, 11L));
+		assertThat(page.hasMore()).isTrue();
+		assertThat(ChangeCursor.decode(page.nextCursor()))
+				.isEqualTo(new ChangeCursor(T0.plusSeconds(3), 11L, T0.plusSeconds(2), 1L));
+	}
+
+	@Test
+	void cursorOfATypeWithoutChangesStaysInPlace() {
+		var cursor = new ChangeCursor(T0, 5L, T0.minusDays(1), 3L);
+		when(contractRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of());
+		when(clientRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of(client(4L, T0, true)));
+
+		var page = service.getChanges(cursor.encode(), 10);
+
+		verify(contractRepository).findChangesAfter(eq(T0), eq(5L), any(), any());
+		verify(clientRepository).findChangesAfter(eq(T0.minusDays(1)), eq(3L), any(), any());
+		assertThat(page.hasMore()).isFalse();
+		assertThat(ChangeCursor.decode(page.nextCursor())).isEqualTo(new ChangeCursor(T0, 5L, T0, 4L));
+	}
+
+	@Test
+	void softDeletedClientsAreReturnedAsTombstones() {
+		when(contractRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of());
+		when(clientRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of(
+				client(1L, T0, true),
+				client(2L, T0.plusSeconds(1), false)));
+
+		var items = service.getChanges(null, 10).items();
+
+		assertThat(items.get(0).deleted()).isFalse();
+		assertThat(items.get(0).data()).isNotNull();
+		assertThat(items.get(1).deleted()).isTrue();
+		assertThat(items.get(1).data()).isNull();
+		assertThat(items.get(1).id()).isEqualTo(2L);
+	}
+
+	@Test
+	void changesYoungerThanTheCommitLagAreHeldBack() {
+		when(contractRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of());
+		when(clientRepository.findChangesAfter(any(), any(), any(), any())).thenReturn(List.of());
+		LocalDateTime before = LocalDateTime.now();
+
+		service.getChanges(null, 10);
+
+		ArgumentCaptor<LocalDateTime> contractsUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+		ArgumentCaptor<LocalDateTime> clientsUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(contractRepository).findChangesAfter(any(), any(), contractsUntil.capture(), any());
+		verify(clientRepository).findChangesAfter(any(), any(), clientsUntil.capture(), any());
+		assertThat(contractsUntil.getValue())
+				.isEqualTo(clientsUntil.getValue())
+				.isBetween(before.minusSeconds(30), LocalDateTime.now().minusSeconds(30));
+	}
+
+	private static ContractChange contract(Long id, LocalDateTime updateDate) {
+		return new ContractChange(id, 100.0, null, null, 1L, "Acme", updateDate);
+	}
+
+	private static Client client(Long id, LocalDateTime updateDate, boolean active) {
+		Company company = new Company();
+		company.setId(id);
+		company.setName("Acme");
+		company.setUpdateDate(updateDate);
+		company.setActive(active);
+		return company;
+	}
+}
@@ -0,0 +1,124 @@
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.dto.BatchImportError;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
+import ch.vaudoise.exercice.api_factory.dto.ContractDTO;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ChunkedImporterTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private final List<List<Double>> written = new ArrayList<>();
+
+	@Test
+	void invalidAndMalformedItemsAreReportedWithTheirIndexAndSkipped() throws IOException {
+		BatchImportResult result = ChunkedImporter.run(items("""
+				{"clientId": 1, "costAmount": 100}
+				{"clientId": 1, "costAmount": -5}
+				{"clientId": 1, "costAmount": "abc"}
+				{"clientId": 1, "costAmount": 101}
+				{"clientId": 1, "costAmount": 102}
+				"""), 2, ChunkedImporterTest::validate, this::write);
+
+		assertThat(result.created()).isEqualTo(3);
+		assertThat(result.failed()).isEqualTo(2);
+		assertThat(result.errors()).extracting(BatchImportError::index).containsExactly(1, 2);
+		assertThat(result.errors().get(0).message()).isEqualTo("costAmount: must be positive");
+		assertThat(result.errors().get(1).message()).startsWith("Malformed item");
+		assertThat(written).containsExactly(List.of(100.0, 101.0), List.of(102.0));
+	}
+
+	@Test
+	void syntaxErrorStopsTheImportAndKeepsTheItemsReadBefore() throws IOException {
+		BatchImportResult result = ChunkedImporter.run(items("""
+				{"clientId": 1, "costAmount": 100}
+				{"clientId": 1, "costAmount": }
+				{"clientId": 1, "costAmount": 101}
+				"""), 2, ChunkedImporterTest::validate, this::write);
+
+		assertThat(result.created()).isEqualTo(1);
+		assertThat(result.errors()).extracting(BatchImportError::index).containsExactly(1);
+		assertThat(written).containsExactly(List.of(100.0));
+	}
+
+	@Test
+	void chunkRejectedByTheDatabaseReportsAllItsItemsAndKeepsTheOtherChunks() throws IOException {
+		ChunkedImporter.ChunkWriter<ContractDTO> writer = (chunk, indexes, errors) -> {
+			if (chunk.stream().anyMatch(dto -> dto.getCostAmount() == 101.0)) {
+				throw new DataIntegrityViolationException("rejected", new IllegalStateException("constraint violated"));
+			}
+			return write(chunk, indexes, errors);
+		};
+
+		BatchImportResult result = ChunkedImporter.run(items("""
+				{"clientId": 1, "costAmount": 100}
+				{"clientId": 1, "costAmount": 101}
+				{"clientId": 1, "costAmount": 102}
+				{"clientId": 1, "costAmount": 103}
+				"""), 2, ChunkedImporterTest::validate, writer);
+
+		assertThat(result.created()).isEqualTo(2);
+		assertThat(result.errors()).extracting(BatchImportError::index, BatchImportError::message).containsExactly(
+				tuple(0, "Chunk rejected by the database: constraint violated"),
+				tuple(1, "Chunk rejected by the database: constraint violated"));
+		assertThat(written).containsExactly(List.of(102.0, 103.0));
+	}
+
+	@Test
+	void writerErrorsAreReportedWithTheOtherErrors() throws IOException {
+		ChunkedImporter.ChunkWriter<ContractDTO> writer = (chunk, indexes, errors) -> {
+			errors.add(new BatchImportError(indexes.get(0), "Client not found: 1"));
+			return chunk.size() - 1;
+		};
+
+		BatchImportResult result = ChunkedImporter.run(items("""
+				{"clientId": 1, "costAmount": 100}
+				{"clientId": 1, "costAmount": 101}
+				"""), 2, ChunkedImporterTest::validate, writer);
+
+		assertThat(result.created()).isEqualTo(1);
+		assertThat(result.failed()).isEqualTo(1);
+		assertThat(result.errors()).containsExactly(new BatchImportError(0, "Client not found: 1"));
+	}
+
+	@Test
+	void errorsBeyondTheLimitAreOnlyCounted() throws IOException {
+		int rejected = ChunkedImporter.MAX_REPORTED_ERRORS + 5;
+		String body = IntStream.range(0, rejected)
+				.mapToObj(i -> "{\"clientId\": 1, \"costAmount\": -1}")
+				.collect(Collectors.joining("\n"));
+
+		BatchImportResult result = ChunkedImporter.run(items(body), 2, ChunkedImporterTest::validate, this::write);
+
+		assertThat(result.failed()).isEqualTo(rejected);
+		assertThat(result.errors()).hasSize(ChunkedImporter.MAX_REPORTED_ERRORS);
+		assertThat(result.errorsOmitted()).isEqualTo(5);
+		assertThat(result.errors().get(0).index()).isZero();
+	}
+
+	private MappingIterator<ContractDTO> items(String ndjson) throws IOException {
+		return objectMapper.readerFor(ContractDTO.class).readValues(ndjson);
+	}
+
+	private int write(List<ContractDTO> chunk, List<Integer> indexes, List<BatchImportError> errors) {
+		written.add(chunk.stream().map(ContractDTO::getCostAmount).toList());
+		return chunk.size();
+	}
+
+	private static String validate(ContractDTO dto) {
+		return dto.getCostAmount() > 0 ? null : "costAmount: must be positive";
+	}
+}
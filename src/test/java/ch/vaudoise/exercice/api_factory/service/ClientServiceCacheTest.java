@@ -0,0 +1,107 @@
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.config.CacheConfig;
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction: evictions are applied when the service transactions commit.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"app.cache.clients.spec=maximumSize=100"
+})
+@Import({CacheConfig.class, ClientService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClientServiceCacheTest {
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Cache cache;
+
+	private Long id;
+
+	@BeforeEach
+	void createClient() {
+		cache = cacheManager.getCache(CacheConfig.CLIENTS_CACHE);
+		Company company = new Company();
+		company.setName("Acme");
+		company.setEmail("contact@acme.ch");
+		company.setCompanyIdentifier("acm-123");
+		id = clientService.saveClient(company).getId();
+	}
+
+	@AfterEach
+	void deleteClients() {
+		clientRepository.deleteAll();
+		cache.clear();
+	}
+
+	@Test
+	void readsReturnCopiesThatDoNotChangeTheCachedClient() {
+		Client loaded = clientService.getClient(id).orElseThrow();
+		Client first = clientService.getClient(id).orElseThrow();
+		Client second = clientService.getClient(id).orElseThrow();
+
+		loaded.setName("Changed");
+		first.setName("Changed");
+
+		assertThat(first).isNotSameAs(second).isNotSameAs(loaded);
+		assertThat(clientService.getClient(id).orElseThrow().getName()).isEqualTo("Acme");
+	}
+
+	@Test
+	void updateEvictsTheClient() {
+		clientService.getClient(id);
+		assertThat(cache.get(id)).isNotNull();
+
+		clientService.updateClient(id, "Acme SA", "info@acme.ch", null, null);
+
+		assertThat(cache.get(id)).isNull();
+		assertThat(clientService.getClient(id).orElseThrow().getName()).isEqualTo("Acme SA");
+	}
+
+	@Test
+	void deleteEvictsTheClient() {
+		clientService.getClient(id);
+
+		clientService.deleteClient(id);
+
+		assertThat(cache.get(id)).isNull();
+		assertThat(clientService.getClient(id).orElseThrow().isActive()).isFalse();
+	}
+
+	@Test
+	void restoreEvictsTheClient() {
+		clientService.deleteClient(id);
+		assertThat(clientService.getClient(id).orElseThrow().isActive()).isFalse();
+
+		clientService.restoreClient(id);
+
+		assertThat(cache.get(id)).isNull();
+		assertThat(clientService.getClient(id).orElseThrow().isActive()).isTrue();
+	}
+}
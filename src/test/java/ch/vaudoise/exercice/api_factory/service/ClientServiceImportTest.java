@@ -0,0 +1,143 @@
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.config.CacheConfig;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportError;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
+import ch.vaudoise.exercice.api_factory.entity.Client;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.entity.Person;
+import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs without a test transaction: each chunk commits on its own, like in production.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"app.cache.clients.spec=maximumSize=100"
+})
+@Import({CacheConfig.class, ClientService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClientServiceImportTest {
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@AfterEach
+	void deleteClients() {
+		clientRepository.deleteAll();
+	}
+
+	@Test
+	void emailUsedByAnActiveClientOrEarlierInTheImportIsRejected() throws IOException {
+		Company existing = new Company();
+		existing.setName("Acme");
+		existing.setEmail("contact@acme.ch");
+		existing.setCompanyIdentifier("acm-123");
+		clientService.saveClient(existing);
+
+		BatchImportResult result = clientService.importClients(companies("""
+				{"name": "Acme bis", "email": "contact@acme.ch", "companyIdentifier": "acm-124"}
+				{"name": "Beta", "email": "info@beta.ch", "companyIdentifier": "bet-123"}
+				{"name": "Beta bis", "email": "info@beta.ch", "companyIdentifier": "bet-124"}
+				"""));
+
+		assertThat(result.created()).isEqualTo(1);
+		assertThat(result.errors()).extracting(BatchImportError::index, BatchImportError::message).containsExactly(
+				tuple(0, "Email already in use: contact@acme.ch"),
+				tuple(2, "Email already in use: info@beta.ch"));
+		assertThat(clientRepository.findAll()).extracting(Client::getName).containsExactlyInAnyOrder("Acme", "Beta");
+	}
+
+	@Test
+	void emailOfADeletedClientCanBeImported() throws IOException {
+		Company deleted = new Company();
+		deleted.setName("Acme");
+		deleted.setEmail("contact@acme.ch");
+		deleted.setCompanyIdentifier("acm-123");
+		clientService.deleteClient(clientService.saveClient(deleted).getId());
+
+		BatchImportResult result = clientService.importClients(companies("""
+				{"name": "Acme SA", "email": "contact@acme.ch", "companyIdentifier": "acm-123"}
+				"""));
+
+		assertThat(result.created()).isEqualTo(1);
+		assertThat(result.errors()).isEmpty();
+	}
+
+	@Test
+	void clientsViolatingTheirConstraintsAreRejected() throws IOException {
+		BatchImportResult result = clientService.importClients(persons("""
+				{"name": "Jane Doe", "email": "jane@doe.ch", "birthDate": "1990-05-01"}
+				{"name": "John Doe", "email": "not-an-email", "birthDate": "1990-05-01"}
+				{"name": "", "email": "max@doe.ch"}
+				"""));
+
+		assertThat(result.created()).isEqualTo(1);
+		assertThat(result.errors()).extracting(BatchImportError::index).containsExactly(1, 2);
+		assertThat(result.errors().get(0).message()).isEqualTo("email: Invalid email format");
+		assertThat(result.errors().get(1).message()).contains("birthDate: ", "name: ");
+		assertThat(clientRepository.findAll()).extracting(Client::getEmail).containsExactly("jane@doe.ch");
+	}
+
+	@Test
+	void importOfSeveralChunksLeavesNoEntityInTheRequestPersistenceContext() throws IOException {
+		int count = ClientService.IMPORT_CHUNK_SIZE + 1;
+		String body = IntStream.range(0, count)
+				.mapToObj(i -> "{\"name\": \"Person " + i + "\", \"email\": \"person" + i + "@example.ch\", \"birthDate\": \"1990-05-01\"}")
+				.collect(Collectors.joining("\n"));
+
+		// Same binding as open-in-view: the chunk transactions join this EntityManager
+		EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+		try {
+			BatchImportResult result = clientService.importClients(persons(body));
+
+			assertThat(result.created()).isEqualTo(count);
+			assertThat(requestEntityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+		} finally {
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			requestEntityManager.close();
+		}
+		assertThat(clientRepository.count()).isEqualTo(count);
+	}
+
+	private MappingIterator<Company> companies(String ndjson) throws IOException {
+		return objectMapper.readerFor(Company.class).readValues(ndjson);
+	}
+
+	private MappingIterator<Person> persons(String ndjson) throws IOException {
+		return objectMapper.readerFor(Person.class).readValues(ndjson);
+	}
+}
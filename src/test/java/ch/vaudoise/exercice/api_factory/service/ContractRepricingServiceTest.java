@@ -0,0 +1,147 @@
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.dto.ContractAmount;
+import ch.vaudoise.exercice.api_factory.dto.RepricingJobStatus;
+import ch.vaudoise.exercice.api_factory.dto.RepricingRequest;
+import ch.vaudoise.exercice.api_factory.events.ContractsChangedEvent;
+import ch.vaudoise.exercice.api_factory.repository.ContractAmountRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ContractRepricingServiceTest {
+
+	private final ContractRepository contractRepository = mock(ContractRepository.class);
+	private final ContractAmountRepository contractAmountRepository = mock(ContractAmountRepository.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+	/** Jobs run on the calling thread: submit returns once the job has finished. */
+	private final ContractRepricingService service = new ContractRepricingService(
+			contractRepository, contractAmountRepository, transactionTemplate, eventPublisher, Runnable::run);
+
+	@BeforeEach
+	void runCallbacksWithoutTransaction() {
+		when(transactionTemplate.execute(any())).thenAnswer(call ->
+				call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	@Test
+	void invalidRequestsAreRejectedBeforeAnyJobIsQueued() {
+		assertThatIllegalArgumentException().isThrownBy(() -> service.submit(request(null, null, null)));
+		assertThatIllegalArgumentException().isThrownBy(() -> service.submit(request(List.of(new ContractAmount(1L, 10.0)), 2.0, null)));
+		assertThatIllegalArgumentException().isThrownBy(() -> service.submit(request(List.of(new ContractAmount(1L, 0.0)), null, null)));
+		assertThatIllegalArgumentException().isThrownBy(() -> service.submit(request(List.of(new ContractAmount(null, 10.0)), null, null)));
+		assertThatIllegalArgumentException().isThrownBy(() -> service.submit(request(null, -100.0, null)));
+		List<Long> tooManyClients = LongStream.rangeClosed(1, ContractRepricingService.MAX_CLIENT_IDS + 1).boxed().toList();
+		assertThatIllegalArgumentException().isThrownBy(() -> service.submit(request(null, 2.0, tooManyClients)));
+
+		verifyNoInteractions(contractRepository, contractAmountRepository, transactionTemplate, eventPublisher);
+	}
+
+	@Test
+	void explicitAmountsAreWrittenPerChunkAndNotifiedPerChunk() {
+		List<ContractAmount> amounts = LongStream.rangeClosed(1, 1500).mapToObj(id -> new ContractAmount(id, 100.0)).toList();
+		when(contractAmountRepository.updateAmounts(anyList(), any())).thenAnswer(call -> call.<List<?>>getArgument(0).size() - 1);
+		when(contractRepository.findClientIdsOf(anyList())).thenReturn(List.of(7L), List.of(8L));
+
+		RepricingJobStatus submitted = service.submit(request(amounts, null, null));
+
+		RepricingJobStatus status = service.getJob(submitted.id()).orElseThrow();
+		assertThat(status.status()).isEqualTo(RepricingJobStatus.COMPLETED);
+		assertThat(status.total()).isEqualTo(1500);
+		assertThat(status.processed()).isEqualTo(1500);
+		assertThat(status.updated()).isEqualTo(1498);
+		assertThat(status.finishedAt()).isNotNull();
+		verify(transactionTemplate, times(2)).execute(any());
+		assertThat(publishedEvents()).extracting(ContractsChangedEvent::clientIds)
+				.containsExactly(List.of(7L), List.of(8L));
+	}
+
+	@Test
+	void percentRuleWalksTheActiveContractsInChunks() {
+		when(contractRepository.countActiveForClients(eq(List.of(7L)), any())).thenReturn(3L);
+		when(contractRepository.findActiveIdsAfterForClients(eq(0L), eq(List.of(7L)), any(), any())).thenReturn(List.of(1L, 2L));
+		when(contractRepository.findActiveIdsAfterForClients(eq(2L), eq(List.of(7L)), any(), any())).thenReturn(List.of(3L));
+		when(contractRepository.findActiveIdsAfterForClients(eq(3L), eq(List.of(7L)), any(), any())).thenReturn(List.of());
+		when(contractRepository.scaleAmounts(anyList(), anyDouble(), any())).thenAnswer(call -> call.<List<?>>getArgument(0).size());
+		when(contractRepository.findClientIdsOf(anyList())).thenReturn(List.of(7L));
+
+		RepricingJobStatus status = service.getJob(service.submit(request(null, 2.5, List.of(7L, 7L))).id()).orElseThrow();
+
+		assertThat(status.status()).isEqualTo(RepricingJobStatus.COMPLETED);
+		assertThat(status.total()).isEqualTo(3);
+		assertThat(status.processed()).isEqualTo(3);
+		assertThat(status.updated()).isEqualTo(3);
+		verify(contractRepository).scaleAmounts(eq(List.of(1L, 2L)), factor(1.025), any());
+		verify(contractRepository).scaleAmounts(eq(List.of(3L)), factor(1.025), any());
+		assertThat(publishedEvents()).hasSize(2).allSatisfy(event -> {
+			assertThat(event.delta()).isNull();
+			assertThat(event.clientIds()).containsExactly(7L);
+		});
+	}
+
+	@Test
+	void failingChunkFailsTheJobAndKeepsTheProgressOfTheCommittedChunks() {
+		when(contractRepository.countActive(any())).thenReturn(3L);
+		when(contractRepository.findActiveIdsAfter(eq(0L), any(), any())).thenReturn(List.of(1L, 2L));
+		when(contractRepository.findActiveIdsAfter(eq(2L), any(), any())).thenReturn(List.of(3L));
+		when(contractRepository.scaleAmounts(anyList(), anyDouble(), any()))
+				.thenReturn(2)
+				.thenThrow(new DataIntegrityViolationException("amount out of range"));
+		when(contractRepository.findClientIdsOf(anyList())).thenReturn(List.of(7L));
+
+		RepricingJobStatus status = service.getJob(service.submit(request(null, 2.5, null)).id()).orElseThrow();
+
+		assertThat(status.status()).isEqualTo(RepricingJobStatus.FAILED);
+		assertThat(status.error()).isEqualTo("amount out of range");
+		assertThat(status.processed()).isEqualTo(2);
+		assertThat(status.updated()).isEqualTo(2);
+		assertThat(publishedEvents()).hasSize(1);
+	}
+
+	@Test
+	void unknownJobIsEmpty() {
+		assertThat(service.getJob("unknown")).isEmpty();
+	}
+
+	private List<ContractsChangedEvent> publishedEvents() {
+		ArgumentCaptor<ContractsChangedEvent> events = ArgumentCaptor.forClass(ContractsChangedEvent.class);
+		verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+		return events.getAllValues();
+	}
+
+	private static double factor(double expected) {
+		return doubleThat(factor -> Math.abs(factor - expected) < 1e-9);
+	}
+
+	private static RepricingRequest request(List<ContractAmount> amounts, Double percent, List<Long> clientIds) {
+		RepricingRequest request = new RepricingRequest();
+		request.setAmounts(amounts);
+		request.setPercent(percent);
+		request.setClientIds(clientIds);
+		return request;
+	}
+}
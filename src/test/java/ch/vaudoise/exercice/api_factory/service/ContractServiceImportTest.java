@@ -0,0 +1,122 @@
+package ch.vaudoise.exercice.api_factory.service;
+
+import ch.vaudoise.exercice.api_factory.config.CacheConfig;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportError;
+import ch.vaudoise.exercice.api_factory.dto.BatchImportResult;
+import ch.vaudoise.exercice.api_factory.dto.ContractDTO;
+import ch.vaudoise.exercice.api_factory.entity.Company;
+import ch.vaudoise.exercice.api_factory.repository.ClientRepository;
+import ch.vaudoise.exercice.api_factory.repository.ContractRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs without a test transaction: each chunk commits on its own, like in production.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"app.cache.clients.spec=maximumSize=100"
+})
+@Import({CacheConfig.class, ContractService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContractServiceImportTest {
+
+	@Autowired
+	private ContractService contractService;
+
+	@Autowired
+	private ContractRepository contractRepository;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private Long clientId;
+
+	@BeforeEach
+	void createClient() {
+		Company company = new Company();
+		company.setName("Acme");
+		company.setEmail("contact@acme.ch");
+		company.setCompanyIdentifier("acm-123");
+		clientId = clientRepository.save(company).getId();
+	}
+
+	@AfterEach
+	void deleteAll() {
+		contractRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	@Test
+	void importOfSeveralChunksLeavesNoEntityInTheRequestPersistenceContext() throws IOException {
+		int count = 2 * ContractService.IMPORT_CHUNK_SIZE + 1;
+		String body = IntStream.range(0, count)
+				.mapToObj(i -> "{\"clientId\": " + clientId + ", \"costAmount\": " + (100 + i) + "}")
+				.collect(Collectors.joining("\n"));
+
+		// Same binding as open-in-view: the chunk transactions join this EntityManager
+		EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+		try {
+			BatchImportResult result = contractService.importContracts(items(body));
+
+			assertThat(result.created()).isEqualTo(count);
+			assertThat(result.errors()).isEmpty();
+			assertThat(requestEntityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+		} finally {
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			requestEntityManager.close();
+		}
+		assertThat(contractRepository.count()).isEqualTo(count);
+	}
+
+	@Test
+	void invalidItemsAndUnknownClientsAreReportedAndTheOthersImported() throws IOException {
+		BatchImportResult result = contractService.importContracts(items("""
+				{"clientId": %1$d, "costAmount": 100}
+				{"costAmount": 100}
+				{"clientId": %1$d, "costAmount": -1}
+				{"clientId": 999999, "costAmount": 100}
+				{"clientId": %1$d, "costAmount": 101, "startDate": "2025-01-01"}
+				""".formatted(clientId)));
+
+		assertThat(result.created()).isEqualTo(2);
+		assertThat(result.errors()).extracting(BatchImportError::index, BatchImportError::message).containsExactly(
+				tuple(1, "clientId: must not be null"),
+				tuple(2, "costAmount: must be greater than 0"),
+				tuple(3, "Client not found: 999999"));
+		assertThat(contractService.getAllContractsForClient(clientId)).hasSize(2);
+	}
+
+	private MappingIterator<ContractDTO> items(String ndjson) throws IOException {
+		return objectMapper.readerFor(ContractDTO.class).readValues(ndjson);
+	}
+}
@@ -0,0 +1,150 @@
+package ch.vaudoise.exercice.api_factory.sqllog;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.zaxxer.hikari.HikariDataSource;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlStatementLoggerTest {
+
+	private static final Duration NEVER_SLOW = Duration.ofHours(1);
+
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+	private final Logger logger = (Logger) LoggerFactory.getLogger(SqlStatementLogger.class);
+
+	private HikariDataSource hikari;
+
+	@BeforeEach
+	void createDatabase() throws SQLException {
+		hikari = new HikariDataSource();
+		hikari.setJdbcUrl("jdbc:h2:mem:sqllog;DB_CLOSE_DELAY=-1");
+		try (Connection connection = hikari.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE client (id BIGINT PRIMARY KEY, email VARCHAR(100))");
+			statement.execute("INSERT INTO client VALUES (1, 'a@example.ch'), (2, 'b@example.ch'), (3, 'c@example.ch')");
+		}
+		logger.setLevel(Level.INFO);
+		appender.start();
+		logger.addAppender(appender);
+	}
+
+	@AfterEach
+	void dropDatabase() throws SQLException {
+		logger.detachAppender(appender);
+		logger.setLevel(null);
+		try (Connection connection = hikari.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE client");
+		}
+		hikari.close();
+	}
+
+	@Test
+	void statementsSlowerThanTheThresholdAreLoggedAsWarnings() throws SQLException {
+		DataSource dataSource = new SqlStatementLogger(Duration.ZERO, 0, false).wrap(hikari);
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.executeUpdate("UPDATE client SET email = email");
+		}
+
+		assertThat(appender.list).singleElement().satisfies(event -> {
+			assertThat(event.getLevel()).isEqualTo(Level.WARN);
+			assertThat(event.getFormattedMessage())
+					.startsWith("Slow query (")
+					.endsWith(" ms, 3 rows) [-] UPDATE client SET email = email");
+		});
+	}
+
+	@Test
+	void fastStatementsAreOnlyLoggedWhenSampledWithTheirRowCount() throws SQLException {
+		query(new SqlStatementLogger(NEVER_SLOW, 0, false).wrap(hikari));
+		assertThat(appender.list).isEmpty();
+
+		query(new SqlStatementLogger(NEVER_SLOW, 1, false).wrap(hikari));
+		assertThat(appender.list).singleElement().satisfies(event -> {
+			assertThat(event.getLevel()).isEqualTo(Level.INFO);
+			assertThat(event.getFormattedMessage())
+					.startsWith("Sampled query (")
+					.endsWith(" ms fetch, 3 rows) [-] SELECT email FROM client WHERE id > ?");
+		});
+	}
+
+	@Test
+	void bindValuesAreOnlyLoggedWhenEnabledAndTruncated() throws SQLException {
+		selectByEmail(new SqlStatementLogger(Duration.ZERO, 0, false).wrap(hikari));
+		selectByEmail(new SqlStatementLogger(Duration.ZERO, 0, true).wrap(hikari));
+
+		assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).satisfiesExactly(
+				hidden -> assertThat(hidden).endsWith("WHERE email = ? OR id = ?").doesNotContain("a.very"),
+				shown -> assertThat(shown).endsWith("WHERE email = ? OR id = ? | params: [a.very.long.address@..., 2]"));
+	}
+
+	@Test
+	void callerIsTheRepositoryMethodRunningTheStatement() throws Throwable {
+		DataSource dataSource = new SqlStatementLogger(Duration.ZERO, 0, false).wrap(hikari);
+		MethodInvocation invocation = mock(MethodInvocation.class);
+		when(invocation.getMethod()).thenReturn(DataSource.class.getMethod("getConnection"));
+		when(invocation.proceed()).thenAnswer(call -> {
+			query(dataSource);
+			return null;
+		});
+
+		new RepositoryCallContext.Interceptor(DataSource.class).invoke(invocation);
+
+		assertThat(appender.list).singleElement().extracting(ILoggingEvent::getFormattedMessage).asString()
+				.contains("[DataSource.getConnection] SELECT");
+		assertThat(RepositoryCallContext.current()).isNull();
+	}
+
+	@Test
+	void wrappedDataSourceStillUnwrapsToTheHikariPool() throws Exception {
+		Object wrapped = new SqlLogBeanPostProcessor(new SqlStatementLogger(NEVER_SLOW, 0, false))
+				.postProcessAfterInitialization(hikari, "dataSource");
+
+		assertThat(wrapped).isNotSameAs(hikari).isInstanceOf(DataSource.class).isInstanceOf(Closeable.class);
+		DataSource dataSource = (DataSource) wrapped;
+		assertThat(dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+		assertThat(dataSource.unwrap(HikariDataSource.class)).isSameAs(hikari);
+		assertThat(DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class)).isSameAs(hikari);
+	}
+
+	private static void query(DataSource dataSource) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement statement = connection.prepareStatement("SELECT email FROM client WHERE id > ?")) {
+			statement.setLong(1, 0L);
+			try (ResultSet rows = statement.executeQuery()) {
+				while (rows.next()) {
+					rows.getString(1);
+				}
+			}
+		}
+	}
+
+	private static void selectByEmail(DataSource dataSource) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement statement = connection.prepareStatement("SELECT id FROM client WHERE email = ? OR id = ?")) {
+			statement.setString(1, "a.very.long.address@example.ch");
+			statement.setLong(2, 2L);
+			statement.executeQuery().close();
+		}
+	}
+}
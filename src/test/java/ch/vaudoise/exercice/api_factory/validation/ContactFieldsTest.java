@@ -0,0 +1,68 @@
+package ch.vaudoise.exercice.api_factory.validation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactFieldsTest {
+
+	/** Regular expressions previously used by the @Pattern constraints. */
+	private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+	private static final Pattern PHONE = Pattern.compile("^[+]?([0-9][\\s-]?){7,15}$");
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"jane.doe@example.ch", "a@b.co", "a+b%c_d-e.f@x-y.z.com", "x@y.c", "x@.ch", "@y.ch", "x@y", "x@y.c1",
+			"x@@y.ch", "x y@z.ch", "x@y..ch", "x@y.ch.", "x@-.ch", "é@y.ch", "x@y.CH", "", "x@y.ch\n", "x@1.2.ab"
+	})
+	void emailMatchesFormerPattern(String email) {
+		assertThat(ContactFields.isValidEmail(email)).isEqualTo(EMAIL.matcher(email).matches());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"+41 79 123 45 67", "0791234567", "079-123-45-67", "1234567", "123456", "1234567890123456",
+			"123456789012345", "+", "++41791234567", "41  79", "079 123 45 67 ", "-0791234567", "079\t123\t4567",
+			"07912a4567", "", "+41 79 123 45 67\n"
+	})
+	void phoneMatchesFormerPattern(String phone) {
+		assertThat(ContactFields.isValidPhone(phone)).isEqualTo(PHONE.matcher(phone).matches());
+	}
+
+	@Test
+	void randomInputsMatchFormerPatterns() {
+		Random random = new Random(42);
+		String emailAlphabet = "aZ09._%+-@ #é";
+		String phoneAlphabet = "0123456789+- \ta";
+		for (int i = 0; i < 100_000; i++) {
+			String email = randomString(random, emailAlphabet, 12);
+			String phone = randomString(random, phoneAlphabet, 20);
+			assertThat(ContactFields.isValidEmail(email)).as(email).isEqualTo(EMAIL.matcher(email).matches());
+			assertThat(ContactFields.isValidPhone(phone)).as(phone).isEqualTo(PHONE.matcher(phone).matches());
+			assertThat(ContactFields.normalizePhone(phone)).isEqualTo(phone.replaceAll("[\\s-]", ""));
+		}
+	}
+
+	@Test
+	void canonicalPhoneIsReturnedAsIs() {
+		String phone = "+41791234567";
+
+		assertThat(ContactFields.normalizePhone(phone)).isSameAs(phone);
+		assertThat(ContactFields.normalizePhone("+41 79-123 45 67")).isEqualTo(phone);
+		assertThat(ContactFields.normalizePhone(null)).isNull();
+	}
+
+	private static String randomString(Random random, String alphabet, int maxLength) {
+		int length = random.nextInt(maxLength + 1);
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+}